@@ -0,0 +1,95 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.AlphaRecord;
+import fi.stuk.ensdf.type.Uncertainty;
+import java.util.List;
+
+/**
+ * AlphaTable keeps the alpha records of a dataset as off-heap columns. The
+ * intensity column holds the alpha intensities (IA).
+ * @see RecordTable
+ */
+public class AlphaTable extends RecordTable<AlphaRecord> {
+    /** The numeric columns. */
+    public static final int E = 0, DE = 1, RI = 2, DRI = 3;
+
+    /** Slots of the uncertainties in the state column. */
+    static final int U_DE = 0, U_DRI = 1;
+
+    /**
+     * View is an alpha record reading its fields from a row of an alpha table.
+     */
+    public static class View extends AlphaRecord implements RecordTable.View {
+        /** The table. */
+        private final AlphaTable t;
+
+        /** The row. */
+        private int row;
+
+        View(AlphaTable t){
+            this.t = t;
+            this.ds = t.ds;
+            moveTo(0);
+        }
+
+        @Override
+        public void moveTo(int row){
+            this.row = row;
+            if(row < t.size)this.lineNro = t.getLineNro(row);
+        }
+
+        @Override
+        public int getRow(){
+            return(row);
+        }
+
+        @Override
+        public Double getE(){
+            return(t.getValue(AlphaTable.E, row));
+        }
+
+        @Override
+        public Uncertainty getDE(){
+            return(t.getUncertainty(AlphaTable.DE, AlphaTable.U_DE, row));
+        }
+
+        @Override
+        public Double getRI(){
+            return(t.getValue(AlphaTable.RI, row));
+        }
+
+        @Override
+        public Uncertainty getDRI(){
+            return(t.getUncertainty(AlphaTable.DRI, AlphaTable.U_DRI, row));
+        }
+    }
+
+    /**
+     * Create a table of given alpha records.
+     * @param ds the dataset of the records.
+     * @param arena the arena to allocate the columns from.
+     * @param records the records.
+     */
+    AlphaTable(Dataset ds, MemoryArena arena, List<AlphaRecord> records){
+        super(ds, arena, records, 4, 0);
+    }
+
+    @Override
+    void store(AlphaRecord r, int row){
+        put(E, row, r.getE());
+        put(DE, U_DE, row, r.getDE());
+        put(RI, row, r.getRI());
+        put(DRI, U_DRI, row, r.getDRI());
+    }
+
+    @Override
+    public View view(){
+        return(new View(this));
+    }
+}
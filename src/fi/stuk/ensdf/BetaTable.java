@@ -0,0 +1,97 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.BetaRecord;
+import fi.stuk.ensdf.type.Uncertainty;
+import java.util.List;
+
+/**
+ * BetaTable keeps the beta records of a dataset as off-heap columns. The
+ * energy column holds the endpoint energies, or the average energies when
+ * the endpoint energy is not given, and the intensity column holds the beta
+ * intensities (IB).
+ * @see RecordTable
+ */
+public class BetaTable extends RecordTable<BetaRecord> {
+    /** The numeric columns. */
+    public static final int E = 0, DE = 1, RI = 2, DRI = 3;
+
+    /** Slots of the uncertainties in the state column. */
+    static final int U_DE = 0, U_DRI = 1;
+
+    /**
+     * View is a beta record reading its fields from a row of a beta table.
+     */
+    public static class View extends BetaRecord implements RecordTable.View {
+        /** The table. */
+        private final BetaTable t;
+
+        /** The row. */
+        private int row;
+
+        View(BetaTable t){
+            this.t = t;
+            this.ds = t.ds;
+            moveTo(0);
+        }
+
+        @Override
+        public void moveTo(int row){
+            this.row = row;
+            if(row < t.size)this.lineNro = t.getLineNro(row);
+        }
+
+        @Override
+        public int getRow(){
+            return(row);
+        }
+
+        @Override
+        public Double getE(){
+            return(t.getValue(BetaTable.E, row));
+        }
+
+        @Override
+        public Uncertainty getDE(){
+            return(t.getUncertainty(BetaTable.DE, BetaTable.U_DE, row));
+        }
+
+        @Override
+        public Double getRI(){
+            return(t.getValue(BetaTable.RI, row));
+        }
+
+        @Override
+        public Uncertainty getDRI(){
+            return(t.getUncertainty(BetaTable.DRI, BetaTable.U_DRI, row));
+        }
+    }
+
+    /**
+     * Create a table of given beta records.
+     * @param ds the dataset of the records.
+     * @param arena the arena to allocate the columns from.
+     * @param records the records.
+     */
+    BetaTable(Dataset ds, MemoryArena arena, List<BetaRecord> records){
+        super(ds, arena, records, 4, 0);
+    }
+
+    @Override
+    void store(BetaRecord r, int row){
+        put(E, row, r.getE());
+        put(DE, U_DE, row, r.getDE());
+        put(RI, row, r.getRI());
+        put(DRI, U_DRI, row, r.getDRI());
+    }
+
+    @Override
+    public View view(){
+        return(new View(this));
+    }
+}
@@ -24,8 +24,15 @@ import fi.stuk.ensdf.record.ProductionNormalizationRecord;
 import fi.stuk.ensdf.record.QValueRecord;
 import fi.stuk.ensdf.record.ReferenceRecord;
 import fi.stuk.ensdf.type.HalfLifeValue;
+import fi.stuk.ensdf.type.SymbolTable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  The Evaluated Nuclear Structure Data File (ENSDF) is made up of a collection of
@@ -96,6 +103,28 @@ public class Dataset {
     /** List of all records. */
     List<Record> records = new ArrayList<>();
     
+    /** The records of {@linkplain #records} partitioned by their classes, or
+     <code>null</code> if not partitioned yet, see {@linkplain #getRecordsOfType(java.lang.Class) }. */
+    private Map<Class<?>, List<Record>> recordsByType = null;
+    
+    /** Read-only views of the partitions of {@linkplain #recordsByType} by
+     requested type. */
+    private Map<Class<?>, List<?>> typeViews = null;
+    
+    /** Number of records in the partitions of {@linkplain #recordsByType}. */
+    private int indexedSize = 0;
+    
+    /** The energies of the level records in ascending order, or <code>null</code>
+     if not indexed yet, see {@linkplain #getNearestLevel(double, double) }. */
+    private double[] levelEnergies = null;
+    
+    /** The level records in the order of {@linkplain #levelEnergies}. */
+    private LevelRecord[] levelsByEnergy = null;
+    
+    /** The positions of the level records of {@linkplain #levelsByEnergy}
+     in the order they were added. */
+    private int[] levelOrder = null;
+    
     /** Origin of the dataset. */
     private String origin;
     
@@ -105,6 +134,16 @@ public class Dataset {
      /** Flag indicating that this decay has been stored already. */
     boolean stored = false;        
     
+    /** The off-heap tables of the records of this dataset, if this dataset
+     has been compacted. */
+    DatasetColumns columns = null;
+    
+    /** The symbol table of the parser of this dataset, see {@linkplain #getSymbols() }. */
+    SymbolTable symbols = null;
+    
+    /** The id of the nuclide ID of this dataset in {@linkplain #symbols}. */
+    int nucidSymbol = -1;
+    
     /**
      * Get a key for this dataset. The key can be used to store the dataset
      * into a hashtable.
@@ -130,58 +169,112 @@ public class Dataset {
     }
     
     /**
-     * Get the records in this dataset.
+     * Get the records in this dataset. Records should be added with
+     * {@linkplain #addRecord(fi.stuk.ensdf.record.Record) }, which keeps the
+     * lists of {@linkplain #getRecordsOfType(java.lang.Class) } up to date.
      * @return the records.
+     * @throws IllegalStateException if this dataset has been compacted, see
+     * {@linkplain #compact(fi.stuk.ensdf.MemoryArena) }.
      */
     public List<Record> getRecords(){
+        checkNotCompacted();
         return(records);
     }
+    
+    /**
+     * Check that this dataset has not been compacted. The records of a
+     * compacted dataset are partly in its tables, so the record lists would
+     * silently miss them.
+     * @throws IllegalStateException if this dataset has been compacted.
+     */
+    private void checkNotCompacted(){
+        if(columns != null)throw new IllegalStateException("Dataset "+this+" has been compacted, its records are in its tables");
+    }
 
     /**
-     * Create a suitable record based on two given record type character codes.
-     * @param code the first record type character code (typically in position 8
-     * of the line describing the record)
-     * @param code2 the second record type character code, either blank or a 
-     * character in position 9 of the line describing the record.
-     * @param line
-     * @return the record corresponding to the given codes.
-     * @throws Exception if the codes don't match any record.
+     * RecordHandler base for records kept in {@linkplain #records}.
      */
-    public Record createRecord(char code, char code2, String line) throws Exception{
-        if(code == 'H')return(new HistoryRecord());        
-        else if(code == 'C')return(new CommentRecord(code));
-        else if(code == 'c')return(new CommentRecord(code));
-        else if(code == 'T' || code2 == 'T')return(new CommentRecord(code));
-        else if(code == 'u')return(new CommentRecord(code));
-        else if(code == 'U')return(new CommentRecord(code));
-        else if(code == 'G' && code2 == 'P')return(new CommentRecord(code));
-        else if(code == 'G')return(new GammaRecord());
-        else if(code == 'B')return(new BetaRecord());
-        else if(code == 'E')return(new ECRecord());
-        else if(code == 'N' && code2 == 'P')return(new ProductionNormalizationRecord());
-        else if(code == 'N')return(new NormalizationRecord());
-        else if(code == 'Q')return(new QValueRecord());
-        else if(code == 'D')return(new DelayedParticleRecord());
-        else if(code == 'L' && code2 == 'P')return(new CommentRecord(code));
-        else if(code == 'L')return(new LevelRecord());
-        else if(code == 'P'){
-            return(new ParentRecord());
+    private abstract static class ListedRecordHandler implements RecordHandler{
+        @Override
+        public boolean needsLine(){
+            return(false);
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
+            ds.records.add(r);
+            ds.indexRecord(r);
         }
-        else if(code == 'X')return(new CrossReferenceRecord());
-        else if(code == 'A')return(new AlphaRecord());
-        else if(code == 'R')return(new ReferenceRecord());        
-        else if(code == ' ' && Character.isDigit(line.charAt(5)) && this.identificationRecord.isContinuation())return(this.identificationRecord);
-        else if(code == ' ')return(new CommentRecord('c'));        
-        throw new IllegalArgumentException("No record with code '"+code+"'.");
-    }
 
+        @Override
+        public void addContinuation(Dataset ds, Record r){
+        }
+    }
+    
     /**
-     * Add a record to this dataset.
-     * @param r the record to add.
+     * RecordHandler base for records kept in {@linkplain #records}, whose
+     * quantities can be continued on continuation records.
      */
-    public void addRecord(Record r){        
-        if(r instanceof HistoryRecord)this.historyRecord = (HistoryRecord)r;
-        else if(r instanceof CommentRecord){
+    private abstract static class ContinuedRecordHandler extends ListedRecordHandler{
+        /** The type of the records. */
+        final Class<? extends Record> type;
+        
+        ContinuedRecordHandler(Class<? extends Record> type){
+            this.type = type;
+        }
+        
+        @Override
+        public void addContinuation(Dataset ds, Record r){
+            Record prev = type.cast(ds.records.get(ds.records.size()-1));
+            prev.addContinuation(r);
+        }
+    }
+    
+    /** Handler for records without a handler of their own. */
+    private static final RecordHandler LISTED = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            throw new IllegalArgumentException("No record with code '"+code+"'.");
+        }
+    };
+    
+    /** Handler for history records. */
+    private static final RecordHandler HISTORY = new RecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new HistoryRecord());
+        }
+
+        @Override
+        public boolean needsLine(){
+            return(false);
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
+            ds.historyRecord = (HistoryRecord)r;
+        }
+
+        @Override
+        public void addContinuation(Dataset ds, Record r){
+            ds.historyRecord = (HistoryRecord)r;
+        }
+    };
+    
+    /** Handler for comment records. */
+    private static final RecordHandler COMMENT = new RecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new CommentRecord(code));
+        }
+
+        @Override
+        public boolean needsLine(){
+            return(false);
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
 //            CommentRecord cr = (CommentRecord)r;
 //            //System.out.println("Add comment:\n"+cr.getCTEXT());
 //            if(cr.getCode() == 'T' || cr.getCode() == 't'){
@@ -193,19 +286,288 @@ public class Dataset {
 //            }
 //            else this.commentRecord = cr;
         }
-        else if(r instanceof ParentRecord)setParentRecord((ParentRecord)r);
-        else if(r instanceof IdentificationRecord)this.identificationRecord = (IdentificationRecord)r;        
-        else if(r instanceof ProductionNormalizationRecord){
-            //if(this.productionNormalizationRecord != null)throw new RuntimeException("Attempt to overwrite production normalization record!");
-            this.productionNormalizationRecord = (ProductionNormalizationRecord)r;
+
+        @Override
+        public void addContinuation(Dataset ds, Record r){
+//            r.parse();
+//            //System.out.println("Append comment with;\n"+((CommentRecord)r).getCTEXT());
+//            appendComment(commentRecord, ((CommentRecord)r));
+            //System.out.println("Comment appended:\n"+commentRecord.getCTEXT());
+        }
+    };
+    
+    /** Handler for lines with a blank record type code, which continue the
+     identification record or are comments. */
+    private static final RecordHandler BLANK = new RecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            if(Character.isDigit(line.charAt(5)) && ds.identificationRecord.isContinuation())return(ds.identificationRecord);
+            return(new CommentRecord('c'));
         }
-        else if(r instanceof NormalizationRecord){
-            //if(this.normalizationRecord != null)throw new RuntimeException("Attempt to overwrite normalization record!");
-            this.normalizationRecord = (NormalizationRecord)r;
+
+        @Override
+        public void add(Dataset ds, Record r){
+            COMMENT.add(ds, r);
         }
-        else if(r instanceof QValueRecord)this.qValueRecord = (QValueRecord)r;
-        
-        else this.records.add(r);
+
+        @Override
+        public void addContinuation(Dataset ds, Record r){
+            COMMENT.addContinuation(ds, r);
+        }
+    };
+    
+    /** Handler for identification records. */
+    private static final RecordHandler IDENTIFICATION = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new IdentificationRecord());
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
+            ds.identificationRecord = (IdentificationRecord)r;
+        }
+    };
+    
+    /** Handler for parent records. */
+    private static final RecordHandler PARENT = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new ParentRecord());
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
+            ds.setParentRecord((ParentRecord)r);
+        }
+    };
+    
+    /** Handler for normalization records. */
+    private static final RecordHandler NORMALIZATION = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new NormalizationRecord());
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
+            //if(ds.normalizationRecord != null)throw new RuntimeException("Attempt to overwrite normalization record!");
+            ds.normalizationRecord = (NormalizationRecord)r;
+        }
+    };
+    
+    /** Handler for production normalization records. */
+    private static final RecordHandler PRODUCTION_NORMALIZATION = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new ProductionNormalizationRecord());
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
+            //if(ds.productionNormalizationRecord != null)throw new RuntimeException("Attempt to overwrite production normalization record!");
+            ds.productionNormalizationRecord = (ProductionNormalizationRecord)r;
+        }
+    };
+    
+    /** Handler for Q-value records. */
+    private static final RecordHandler QVALUE = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new QValueRecord());
+        }
+
+        @Override
+        public void add(Dataset ds, Record r){
+            ds.qValueRecord = (QValueRecord)r;
+        }
+    };
+    
+    /** Handler for gamma records. */
+    private static final RecordHandler GAMMA = new ContinuedRecordHandler(GammaRecord.class){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new GammaRecord());
+        }
+    };
+    
+    /** Handler for beta records. */
+    private static final RecordHandler BETA = new ContinuedRecordHandler(BetaRecord.class){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new BetaRecord());
+        }
+    };
+    
+    /** Handler for EC records. */
+    private static final RecordHandler EC = new ContinuedRecordHandler(ECRecord.class){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new ECRecord());
+        }
+    };
+    
+    /** Handler for level records. */
+    private static final RecordHandler LEVEL = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new LevelRecord());
+        }
+    };
+    
+    /** Handler for alpha records. */
+    private static final RecordHandler ALPHA = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new AlphaRecord());
+        }
+    };
+    
+    /** Handler for delayed particle records. */
+    private static final RecordHandler DELAYED_PARTICLE = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new DelayedParticleRecord());
+        }
+    };
+    
+    /** Handler for cross reference records. */
+    private static final RecordHandler CROSS_REFERENCE = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new CrossReferenceRecord());
+        }
+    };
+    
+    /** Handler for reference records. */
+    private static final RecordHandler REFERENCE = new ListedRecordHandler(){
+        @Override
+        public Record create(Dataset ds, char code, String line){
+            return(new ReferenceRecord());
+        }
+    };
+    
+    /** Record handlers by the record type character codes, see {@linkplain #getRecordHandler(char, char) }. */
+    private static final RecordHandler[] recordHandlers = new RecordHandler[128*128];
+    
+    /** Record handlers by record type, see {@linkplain #handlerOf}. */
+    private static final Map<Class<?>, RecordHandler> typeHandlers = new ConcurrentHashMap<>();
+    
+    /** Record handlers by record class. The handler of a class is the handler
+     of the class or its nearest superclass in {@linkplain #typeHandlers}. */
+    private static final ClassValue<RecordHandler> handlerOf = new ClassValue<RecordHandler>(){
+        @Override
+        protected RecordHandler computeValue(Class<?> type){
+            for(Class<?> c = type;c != null;c = c.getSuperclass()){
+                RecordHandler h = typeHandlers.get(c);
+                if(h != null)return(h);
+            }
+            return(LISTED);
+        }
+    };
+    
+    static{
+        for(char code = 0;code < 128;code++){
+            for(char code2 = 0;code2 < 128;code2++){
+                recordHandlers[code << 7 | code2] = getDefaultRecordHandler(code, code2);
+            }
+        }
+        typeHandlers.put(HistoryRecord.class, HISTORY);
+        typeHandlers.put(CommentRecord.class, COMMENT);
+        typeHandlers.put(IdentificationRecord.class, IDENTIFICATION);
+        typeHandlers.put(ParentRecord.class, PARENT);
+        typeHandlers.put(NormalizationRecord.class, NORMALIZATION);
+        typeHandlers.put(ProductionNormalizationRecord.class, PRODUCTION_NORMALIZATION);
+        typeHandlers.put(QValueRecord.class, QVALUE);
+        typeHandlers.put(GammaRecord.class, GAMMA);
+        typeHandlers.put(BetaRecord.class, BETA);
+        typeHandlers.put(ECRecord.class, EC);
+    }
+    
+    /**
+     * Get the default record handler for given record type character codes.
+     * This is used to fill the table of record handlers.
+     * @param code the first record type character code.
+     * @param code2 the second record type character code.
+     * @return the handler, or <code>null</code> if the codes don't match any
+     * record.
+     */
+    private static RecordHandler getDefaultRecordHandler(char code, char code2){
+        if(code == 'H')return(HISTORY);
+        else if(code == 'C')return(COMMENT);
+        else if(code == 'c')return(COMMENT);
+        else if(code == 'T' || code2 == 'T')return(COMMENT);
+        else if(code == 'u')return(COMMENT);
+        else if(code == 'U')return(COMMENT);
+        else if(code == 'G' && code2 == 'P')return(COMMENT);
+        else if(code == 'G')return(GAMMA);
+        else if(code == 'B')return(BETA);
+        else if(code == 'E')return(EC);
+        else if(code == 'N' && code2 == 'P')return(PRODUCTION_NORMALIZATION);
+        else if(code == 'N')return(NORMALIZATION);
+        else if(code == 'Q')return(QVALUE);
+        else if(code == 'D')return(DELAYED_PARTICLE);
+        else if(code == 'L' && code2 == 'P')return(COMMENT);
+        else if(code == 'L')return(LEVEL);
+        else if(code == 'P')return(PARENT);
+        else if(code == 'X')return(CROSS_REFERENCE);
+        else if(code == 'A')return(ALPHA);
+        else if(code == 'R')return(REFERENCE);
+        else if(code == ' ')return(BLANK);
+        return(null);
+    }
+    
+    /**
+     * Get the record handler for given record type character codes.
+     * @param code the first record type character code.
+     * @param code2 the second record type character code.
+     * @return the handler, or <code>null</code> if the codes don't match any
+     * record.
+     */
+    public static RecordHandler getRecordHandler(char code, char code2){
+        if(code >= 128 || code2 >= 128)return(getDefaultRecordHandler(code, code2));
+        return(recordHandlers[code << 7 | code2]);
+    }
+    
+    /**
+     * Set the record handler for given record type character codes and
+     * record type. Handlers should be set before parsing.
+     * @param code the first record type character code.
+     * @param code2 the second record type character code.
+     * @param type the type of the records created by the handler.
+     * @param h the handler.
+     */
+    public static void setRecordHandler(char code, char code2, Class<? extends Record> type, RecordHandler h){
+        if(code >= 128 || code2 >= 128)throw new IllegalArgumentException("Invalid record code '"+code+"', '"+code2+"'.");
+        recordHandlers[code << 7 | code2] = h;
+        typeHandlers.put(type, h);
+        handlerOf.remove(type);
+    }
+
+    /**
+     * Create a suitable record based on two given record type character codes.
+     * @param code the first record type character code (typically in position 8
+     * of the line describing the record)
+     * @param code2 the second record type character code, either blank or a 
+     * character in position 9 of the line describing the record.
+     * @param line
+     * @return the record corresponding to the given codes.
+     * @throws Exception if the codes don't match any record.
+     * @see #getRecordHandler(char, char) 
+     */
+    public Record createRecord(char code, char code2, String line) throws Exception{
+        RecordHandler h = getRecordHandler(code, code2);
+        if(h == null)throw new IllegalArgumentException("No record with code '"+code+"'.");
+        return(h.create(this, code, line));
+    }
+
+    /**
+     * Add a record to this dataset.
+     * @param r the record to add.
+     */
+    public void addRecord(Record r){        
+        checkNotCompacted();
+        handlerOf.get(r.getClass()).add(this, r);
     }
 
     /**
@@ -214,28 +576,8 @@ public class Dataset {
      * @param r the record.
      */
     public void continueRecord(Record r){        
-        if(r instanceof HistoryRecord)this.historyRecord = (HistoryRecord)r;
-        else if(r instanceof CommentRecord){
-//            r.parse();
-//            //System.out.println("Append comment with;\n"+((CommentRecord)r).getCTEXT());
-//            appendComment(commentRecord, ((CommentRecord)r));
-            //System.out.println("Comment appended:\n"+commentRecord.getCTEXT());
-        }
-        else if(r instanceof GammaRecord){
-            GammaRecord prev = (GammaRecord)this.records.get(records.size()-1);            
-            prev.setContent(prev.getContent()+"\n"+r.getContent());            
-            prev.parseContinuation();                        
-        }
-        else if(r instanceof ECRecord){
-            ECRecord prev = (ECRecord)this.records.get(records.size()-1);            
-            prev.setContent(prev.getContent()+"\n"+r.getContent());            
-            prev.parseContinuation();                        
-        }
-        else if(r instanceof BetaRecord){
-            BetaRecord prev = (BetaRecord)this.records.get(records.size()-1);            
-            prev.setContent(prev.getContent()+"\n"+r.getContent());            
-            prev.parseContinuation();                        
-        }
+        checkNotCompacted();
+        handlerOf.get(r.getClass()).addContinuation(this, r);
     }
 
     /**
@@ -259,18 +601,174 @@ public class Dataset {
     }
     
     /**
-     * Get records of given type.
+     * Get records of given type. The records are kept partitioned by their
+     * classes, so this neither scans the records nor allocates, once the
+     * partitions have been built on first use.
      * @param <T> the type.
      * @param type the type.
-     * @return list of records of given type.
+     * @return read-only list of records of given type, in the order they were
+     * added. The list reflects records added later with {@linkplain #addRecord(fi.stuk.ensdf.record.Record) }.
+     * @throws IllegalStateException if this dataset has been compacted, see
+     * {@linkplain #compact(fi.stuk.ensdf.MemoryArena) }.
      */
+    @SuppressWarnings("unchecked")
     public <T> List<T> getRecordsOfType(Class<T> type){
+        checkNotCompacted();
+        if(recordsByType == null || indexedSize != records.size())indexRecords();
+        List<?> v = typeViews.get(type);
+        if(v == null){
+            List<Record> match = null;
+            for(Map.Entry<Class<?>, List<Record>> e : recordsByType.entrySet()){
+                if(!e.getKey().isAssignableFrom(type))continue;
+                if(match != null)return(scanRecordsOfType(type));
+                match = e.getValue();
+            }
+            v = (match == null) ? Collections.emptyList() : Collections.unmodifiableList(match);
+            typeViews.put(type, v);
+        }
+        return((List<T>)v);
+    }
+    
+    /**
+     * Get records of given type by scanning all records. Used for the rare
+     * types whose records fall in several partitions.
+     * @param <T> the type.
+     * @param type the type.
+     * @return list of records of given type.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> scanRecordsOfType(Class<T> type){
         List<T> ret = new ArrayList<>();
         for(Record r : records){
             if(r.getClass().isAssignableFrom(type))ret.add((T)r);
         }
         return(ret);
     }
+    
+    /**
+     * Get the level record nearest to a given energy. The levels are looked
+     * up by binary search from an index of the level records sorted by
+     * energy, which is built on first use. Of levels equally near, the one
+     * added first is returned.
+     * @param energy the energy (keV).
+     * @param tolerance the maximum difference of the energies (exclusive).
+     * @return the nearest level, or <code>null</code> if there is no level
+     * with an energy within the tolerance.
+     * @throws IllegalStateException if this dataset has been compacted, see
+     * {@linkplain #compact(fi.stuk.ensdf.MemoryArena) }.
+     * @see #invalidateLevelIndex() 
+     */
+    public LevelRecord getNearestLevel(double energy, double tolerance){
+        List<LevelRecord> levels = getRecordsOfType(LevelRecord.class);
+        if(levelEnergies == null)buildLevelIndex(levels);
+        int n = levelEnergies.length;
+        int lo = 0;
+        int hi = n;
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(levelEnergies[mid] < energy)lo = mid + 1;
+            else hi = mid;
+        }
+        double dist = Double.MAX_VALUE;
+        if(lo > 0)dist = Math.abs(levelEnergies[lo-1] - energy);
+        if(lo < n)dist = Math.min(dist, Math.abs(levelEnergies[lo] - energy));
+        if(!(dist < tolerance))return(null);
+        int best = -1;
+        for(int i = lo - 1;i >= 0 && Math.abs(levelEnergies[i] - energy) == dist;i--){
+            if(best == -1 || levelOrder[i] < levelOrder[best])best = i;
+        }
+        for(int i = lo;i < n && Math.abs(levelEnergies[i] - energy) == dist;i++){
+            if(best == -1 || levelOrder[i] < levelOrder[best])best = i;
+        }
+        return(levelsByEnergy[best]);
+    }
+    
+    /**
+     * Drop the energy index of the level records, so that it is built again
+     * on next use of {@linkplain #getNearestLevel(double, double) }. The index
+     * is dropped automatically when level records are added with
+     * {@linkplain #addRecord(fi.stuk.ensdf.record.Record) }, but it must be
+     * dropped explicitly when the energy of a level is changed, or levels are
+     * added to {@linkplain #getRecords() } directly.
+     */
+    public void invalidateLevelIndex(){
+        levelEnergies = null;
+        levelsByEnergy = null;
+        levelOrder = null;
+    }
+    
+    /**
+     * Build the energy index of the level records.
+     * @param levels the level records, in the order they were added.
+     */
+    private void buildLevelIndex(final List<LevelRecord> levels){
+        Integer[] pos = new Integer[levels.size()];
+        int n = 0;
+        for(int i = 0;i < pos.length;i++){
+            if(levels.get(i).getE() != null)pos[n++] = i;
+        }
+        final double[] e = new double[levels.size()];
+        for(int i = 0;i < n;i++)e[pos[i]] = levels.get(pos[i]).getE();
+        Arrays.sort(pos, 0, n, new Comparator<Integer>(){
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return(Double.compare(e[o1], e[o2]));
+            }
+        });
+        levelEnergies = new double[n];
+        levelsByEnergy = new LevelRecord[n];
+        levelOrder = new int[n];
+        for(int i = 0;i < n;i++){
+            levelEnergies[i] = e[pos[i]];
+            levelsByEnergy[i] = levels.get(pos[i]);
+            levelOrder[i] = pos[i];
+        }
+    }
+    
+    /**
+     * Partition the records of this dataset by their classes.
+     * @see #getRecordsOfType(java.lang.Class) 
+     */
+    private void indexRecords(){
+        invalidateLevelIndex();
+        recordsByType = new HashMap<>();
+        typeViews = new HashMap<>();
+        indexedSize = 0;
+        for(Record r : records)partition(r);
+    }
+    
+    /**
+     * Add a record just added to {@linkplain #records} to its partition, if
+     * the records have been partitioned. If the records have been modified
+     * otherwise since partitioning, the partitions are dropped, to be built
+     * again on next use.
+     * @param r the record.
+     */
+    void indexRecord(Record r){
+        if(recordsByType == null)return;
+        if(indexedSize != records.size() - 1){
+            recordsByType = null;
+            typeViews = null;
+            return;
+        }
+        partition(r);
+    }
+    
+    /**
+     * Add a record to its partition.
+     * @param r the record.
+     */
+    private void partition(Record r){
+        if(r instanceof LevelRecord)invalidateLevelIndex();
+        List<Record> l = recordsByType.get(r.getClass());
+        if(l == null){
+            l = new ArrayList<>();
+            recordsByType.put(r.getClass(), l);
+            typeViews.clear();
+        }
+        l.add(r);
+        indexedSize++;
+    }
 
     /**
      * @return the identificationRecord
@@ -407,6 +905,42 @@ public class Dataset {
         return(this.lineNro);
     }
 
+    /**
+     * Get the symbol table the short text fields of the records of this
+     * dataset are interned to. The table is shared by all datasets parsed
+     * with the same parser.
+     * @return the symbol table, or <code>null</code> if this dataset was not
+     * created by a parser.
+     * @see SymbolTable
+     */
+    public SymbolTable getSymbols(){
+        return(symbols);
+    }
+    
+    /**
+     * Set the symbol table of this dataset, interning the origin and the
+     * nuclide ID of this dataset to it.
+     * @param symbols the symbol table.
+     */
+    void setSymbols(SymbolTable symbols){
+        this.symbols = symbols;
+        this.origin = symbols.intern(origin);
+        this.nucidSymbol = symbols.id(identificationRecord.getNUCID());
+    }
+    
+    /**
+     * Get the nuclide ID of this dataset as a symbol id. Datasets of the same
+     * nuclide parsed with the same parser have the same symbol id, which can
+     * be compared and hashed instead of the nuclide ID string.
+     * @return the symbol id, or <code>-1</code> if this dataset has no symbol
+     * table.
+     * @see SymbolTable#id(java.lang.String)
+     * @see #getSymbols()
+     */
+    public int getNUCIDSymbol(){
+        return((symbols != null) ? nucidSymbol : -1);
+    }
+    
     /**
      * @return the origin
      */
@@ -421,6 +955,45 @@ public class Dataset {
         this.origin = origin;
     }
     
+    /**
+     * Compact this dataset by moving its level, gamma, beta, EC and alpha
+     * records to off-heap tables allocated from a given arena. The records
+     * are read through the views of the tables instead, see
+     * {@linkplain RecordTable}.
+     * <p>
+     * Compacting is meant for keeping large amounts of data resident for
+     * analysis, e.g. several ENSDF releases for comparison. A compacted
+     * dataset can no longer be patched or encoded: its record lists
+     * ({@linkplain #getRecords() }, {@linkplain #getRecordsOfType(java.lang.Class) }
+     * and {@linkplain #getNearestLevel(double, double) }) and adding records
+     * throw an <code>IllegalStateException</code>.
+     * @param arena the arena to allocate the tables from.
+     * @return the tables.
+     */
+    public DatasetColumns compact(MemoryArena arena){
+        if(columns != null)return(columns);
+        columns = new DatasetColumns(this, arena);
+        List<Record> rest = new ArrayList<>();
+        for(Record r : records){
+            if(!DatasetColumns.isTabulated(r))rest.add(r);
+        }
+        records = rest;
+        recordsByType = null;
+        typeViews = null;
+        previousAdded = null;
+        return(columns);
+    }
+    
+    /**
+     * Get the off-heap tables of the records of this dataset.
+     * @return the tables, or <code>null</code> if this dataset has not been
+     * compacted.
+     * @see #compact(fi.stuk.ensdf.MemoryArena) 
+     */
+    public DatasetColumns getColumns(){
+        return(columns);
+    }
+    
     /**
      * Set the stored state of this decay.
      * @param stored the stored state.
@@ -0,0 +1,111 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.AlphaRecord;
+import fi.stuk.ensdf.record.BetaRecord;
+import fi.stuk.ensdf.record.ECRecord;
+import fi.stuk.ensdf.record.GammaRecord;
+import fi.stuk.ensdf.record.LevelRecord;
+import fi.stuk.ensdf.record.Record;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DatasetColumns holds the off-heap {@linkplain RecordTable}s of the level,
+ * gamma, beta, EC and alpha records of a compacted dataset. The line numbers
+ * of the records (see {@linkplain RecordTable#getLineNro(int) }) give their
+ * order in the dataset across the tables.
+ * @see Dataset#compact(fi.stuk.ensdf.MemoryArena)
+ */
+public class DatasetColumns {
+    /** The level records. */
+    private final LevelTable levels;
+
+    /** The gamma records. */
+    private final GammaTable gammas;
+
+    /** The beta records. */
+    private final BetaTable betas;
+
+    /** The EC records. */
+    private final ECTable ecs;
+
+    /** The alpha records. */
+    private final AlphaTable alphas;
+
+    /**
+     * Create the tables of the records of a dataset.
+     * @param ds the dataset.
+     * @param arena the arena to allocate the columns from.
+     */
+    DatasetColumns(Dataset ds, MemoryArena arena){
+        List<LevelRecord> l = new ArrayList<>();
+        List<GammaRecord> g = new ArrayList<>();
+        List<BetaRecord> b = new ArrayList<>();
+        List<ECRecord> e = new ArrayList<>();
+        List<AlphaRecord> a = new ArrayList<>();
+        for(Record r : ds.records){
+            if(r instanceof LevelRecord)l.add((LevelRecord)r);
+            else if(r instanceof GammaRecord)g.add((GammaRecord)r);
+            else if(r instanceof BetaRecord)b.add((BetaRecord)r);
+            else if(r instanceof ECRecord)e.add((ECRecord)r);
+            else if(r instanceof AlphaRecord)a.add((AlphaRecord)r);
+        }
+        levels = new LevelTable(ds, arena, l);
+        gammas = new GammaTable(ds, arena, g);
+        betas = new BetaTable(ds, arena, b);
+        ecs = new ECTable(ds, arena, e);
+        alphas = new AlphaTable(ds, arena, a);
+    }
+
+    /**
+     * See if a record is kept in these tables.
+     * @param r the record.
+     * @return <code>true</code> if the record is a level, gamma, beta, EC or
+     * alpha record, <code>false</code> otherwise.
+     */
+    static boolean isTabulated(Record r){
+        return(r instanceof LevelRecord || r instanceof GammaRecord || r instanceof BetaRecord
+                || r instanceof ECRecord || r instanceof AlphaRecord);
+    }
+
+    /**
+     * @return the level records.
+     */
+    public LevelTable getLevels(){
+        return(levels);
+    }
+
+    /**
+     * @return the gamma records.
+     */
+    public GammaTable getGammas(){
+        return(gammas);
+    }
+
+    /**
+     * @return the beta records.
+     */
+    public BetaTable getBetas(){
+        return(betas);
+    }
+
+    /**
+     * @return the EC records.
+     */
+    public ECTable getECs(){
+        return(ecs);
+    }
+
+    /**
+     * @return the alpha records.
+     */
+    public AlphaTable getAlphas(){
+        return(alphas);
+    }
+}
@@ -14,8 +14,8 @@ import fi.stuk.ensdf.record.IdentificationRecord;
  * @author Tero Karhunen
  */
 public class Decay extends Dataset{    
-    /** Key for this decay. Lazy initialization in {@linkplain #getKey()}. */
-    String sId = null;
+    /** The parsed DSID of this decay, see {@linkplain #getDecayId() }. */
+    private DecayId decayId = null;
     
     /** MS is the metastable symbol. If MS is not null, then this decay is
      * from a metastable state.
@@ -36,14 +36,26 @@ public class Decay extends Dataset{
      */
     public Decay(IdentificationRecord id){
         this.identificationRecord = id;
+        this.decayId = new DecayId(id.getDSID());
     }
     
+    /**
+     * Get the DSID of this decay parsed into the parent NUCID, decay type and
+     * parent half life.
+     * @return the decay id.
+     */
+    public DecayId getDecayId(){
+        if(decayId == null)decayId = new DecayId(this.identificationRecord.getDSID());
+        return(decayId);
+    }
+    
+    /**
+     * Get the key of this decay, which is the NUCID of the parent.
+     * @return the key.
+     */
     @Override
     public String getKey(){
-        if(sId == null){
-            sId = this.identificationRecord.getDSID().split("\\s+")[0];
-        }
-        return(sId);
+        return(getDecayId().getParent());
     }
     
     /** Get the MS (metastable symbol) of this decay.
@@ -7,7 +7,11 @@
 package fi.stuk.ensdf;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
 <b>Decay Data Set</b>
@@ -50,6 +54,18 @@ records should be derived.
 public class DecayDataset extends Dataset{    
     /** The decays in this dataset. */
     List<Decay> decays = new ArrayList<>();
+    
+    /** The decays indexed by their parent and normalized decay type, see
+     {@linkplain #indexKey(fi.stuk.ensdf.DecayId) }, or <code>null</code> if not
+     indexed yet. The decays of each key are in the order of {@linkplain #decays}. */
+    private Map<String, List<Decay>> index = null;
+    
+    /** The decays whose DSID is too short to be indexed, see
+     {@linkplain #indexKey(fi.stuk.ensdf.DecayId) }. */
+    private List<Decay> unindexed = null;
+    
+    /** Number of decays in the index. */
+    private int indexedSize = 0;
 
     /**
      * Add a decay into this dataset.
@@ -57,6 +73,106 @@ public class DecayDataset extends Dataset{
      */
     public void add(Decay d){
         decays.add(d);
+        if(index != null && indexedSize == decays.size() - 1)addToIndex(d);
+        else index = null;
+    }
+    
+    /**
+     * Remove a decay from this dataset.
+     * @param d the decay to remove.
+     */
+    public void remove(Decay d){
+        decays.remove(d);
+        if(index == null || indexedSize != decays.size() + 1){
+            index = null;
+            return;
+        }
+        String key = indexKey(d.getDecayId());
+        if(key == null)unindexed.remove(d);
+        else index.get(key).remove(d);
+        indexedSize--;
+    }
+    
+    /**
+     * Find the decays that a patch decay with given id replaces, see
+     * {@linkplain DecayId#replaces(fi.stuk.ensdf.DecayId) }. Only the decays
+     * with the same parent and decay type are compared, so the time taken does
+     * not depend on the number of decays in this dataset.
+     * @param id the id of the patch decay.
+     * @return the decays to replace in the order they were added, empty if
+     * there are none.
+     */
+    public List<Decay> findReplaced(DecayId id){
+        if(index == null || indexedSize != decays.size())buildIndex();
+        List<Decay> ret = new ArrayList<>(1);
+        String key = indexKey(id);
+        List<Decay> l = (key != null) ? index.get(key) : null;
+        if(l != null){
+            for(Decay d : l){
+                if(id.replaces(d.getDecayId()))ret.add(d);
+            }
+        }
+        if(!unindexed.isEmpty()){
+            int n = ret.size();
+            for(Decay d : unindexed){
+                if(id.replaces(d.getDecayId()))ret.add(d);
+            }
+            if(n > 0 && ret.size() > n){
+                Collections.sort(ret, new Comparator<Decay>(){
+                    @Override
+                    public int compare(Decay o1, Decay o2) {
+                        return(Integer.compare(decays.indexOf(o1), decays.indexOf(o2)));
+                    }
+                });
+            }
+        }
+        return(ret);
+    }
+    
+    /**
+     * Get the index key of a decay id. Decays with different keys never
+     * replace each other, as a decay id replaces another one only if the
+     * DSID of the other is a prefix of its DSID, or if their first three
+     * tokens are equal. The decay type B+ is normalized to EC, as ENSDF gives
+     * the same decays as either.
+     * @param id the decay id.
+     * @return the key, or <code>null</code> if the DSID has less than three
+     * tokens. The last token of such a DSID may be a prefix of a longer token
+     * of a replacing DSID, so they are not indexed.
+     */
+    private static String indexKey(DecayId id){
+        if(id.getTokenCount() < 3)return(null);
+        String type = id.getType();
+        if(type.equals("B+"))type = "EC";
+        return(id.getParent()+" "+type);
+    }
+    
+    /**
+     * Index all decays of this dataset.
+     */
+    private void buildIndex(){
+        index = new HashMap<>();
+        unindexed = new ArrayList<>();
+        indexedSize = 0;
+        for(Decay d : decays)addToIndex(d);
+    }
+    
+    /**
+     * Add a decay to the index.
+     * @param d the decay.
+     */
+    private void addToIndex(Decay d){
+        String key = indexKey(d.getDecayId());
+        if(key == null)unindexed.add(d);
+        else{
+            List<Decay> l = index.get(key);
+            if(l == null){
+                l = new ArrayList<>(2);
+                index.put(key, l);
+            }
+            l.add(d);
+        }
+        indexedSize++;
     }
 
     /**
@@ -68,7 +184,10 @@ public class DecayDataset extends Dataset{
     }        
     
     /**
-     * Get the decays in this dataset.
+     * Get the decays in this dataset. Decays should be added and removed with
+     * {@linkplain #add(fi.stuk.ensdf.Decay) } and {@linkplain #remove(fi.stuk.ensdf.Decay) },
+     * which keep the index of {@linkplain #findReplaced(fi.stuk.ensdf.DecayId) }
+     * up to date.
      * @return the decays.
      */
     public List<Decay> getDecays(){
@@ -0,0 +1,207 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.type.HalfLifeValue;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DecayId is the DSID of a decay dataset parsed into its parts. The DSID
+ * of a decay dataset is of the form
+ * <pre>
+ * 137CS B- DECAY (30.08 Y)
+ * </pre>
+ * i.e. the parent NUCID, the decay type, the word DECAY and optionally the
+ * half life of the parent in parentheses, which tells apart decays of
+ * different states of the same parent.
+ * <p>
+ * The DSID is parsed once when the decay is created (see
+ * {@linkplain Decay#getDecayId() }), so that the parts are not looked up
+ * again from the text each time they are needed. Decay ids are immutable, and
+ * equal if their DSIDs are equal.
+ */
+public final class DecayId {
+    /** The DSID. */
+    private final String dsid;
+
+    /** The whitespace separated tokens of the DSID. */
+    private final String[] tokens;
+
+    /** The half life of the parent, or <code>null</code> if the DSID gives none. */
+    private final HalfLifeValue halfLife;
+
+    /**
+     * Parse a decay id from a DSID.
+     * @param dsid the DSID.
+     */
+    public DecayId(String dsid){
+        this.dsid = dsid;
+        this.tokens = tokenize(dsid);
+        this.halfLife = parseHalfLife();
+    }
+
+    /**
+     * Split a text to whitespace separated tokens, as
+     * <code>text.split("\\s+")</code> would for a text without leading
+     * whitespace.
+     * @param s the text.
+     * @return the tokens.
+     */
+    private static String[] tokenize(String s){
+        List<String> t = new ArrayList<>(6);
+        int i = 0;
+        int n = s.length();
+        do{
+            int a = i;
+            while(i < n && !isSpace(s.charAt(i)))i++;
+            t.add(s.substring(a, i));
+            while(i < n && isSpace(s.charAt(i)))i++;
+        }while(i < n);
+        return(t.toArray(new String[t.size()]));
+    }
+
+    /**
+     * See if a character is whitespace in the sense of the regular expression
+     * <code>\s</code>.
+     * @param c the character.
+     * @return <code>true</code> if the character is whitespace.
+     */
+    private static boolean isSpace(char c){
+        return(c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r');
+    }
+
+    /**
+     * Parse the half life of the parent given in parentheses after the
+     * decay type, e.g. <code>(30.08 Y)</code>.
+     * @return the half life, or <code>null</code> if there is none or it
+     * cannot be parsed.
+     */
+    private HalfLifeValue parseHalfLife(){
+        if(tokens.length <= 4 || !dsid.contains("(") || !dsid.contains(")"))return(null);
+        for(int j = 3;j < tokens.length - 1;j++){
+            String num = tokens[j].replace("(", "");
+            if(num.length() > 0 && Character.isDigit(num.charAt(0))){
+                HalfLifeValue hl = new HalfLifeValue();
+                if(!hl.parse(num+" "+tokens[j+1].replace(")", "")))return(null);
+                return(hl);
+            }
+        }
+        return(null);
+    }
+
+    /**
+     * Get the DSID.
+     * @return the DSID.
+     */
+    public String getDSID(){
+        return(dsid);
+    }
+
+    /**
+     * Get the NUCID of the parent, i.e. the first token of the DSID.
+     * @return the parent NUCID.
+     */
+    public String getParent(){
+        return(tokens[0]);
+    }
+
+    /**
+     * Get the decay type, i.e. the second token of the DSID (e.g.
+     * <code>B-</code>, <code>EC</code> or <code>IT</code>).
+     * @return the decay type, or <code>null</code> if the DSID has only one token.
+     */
+    public String getType(){
+        return((tokens.length > 1) ? tokens[1] : null);
+    }
+
+    /**
+     * Get the number of whitespace separated tokens of the DSID.
+     * @return the number of tokens.
+     */
+    public int getTokenCount(){
+        return(tokens.length);
+    }
+
+    /**
+     * Get a whitespace separated token of the DSID.
+     * @param i the index of the token.
+     * @return the token.
+     */
+    public String getToken(int i){
+        return(tokens[i]);
+    }
+
+    /**
+     * See if the first tokens of the DSIDs of this and another decay id are
+     * equal.
+     * @param o the other decay id.
+     * @param n the number of tokens to compare.
+     * @return <code>true</code> if both DSIDs have at least the given number
+     * of tokens and they are equal, <code>false</code> otherwise.
+     */
+    public boolean firstTokensMatch(DecayId o, int n){
+        if(tokens.length < n || o.tokens.length < n)return(false);
+        for(int i = 0;i < n;i++){
+            if(!tokens[i].equals(o.tokens[i]))return(false);
+        }
+        return(true);
+    }
+
+    /**
+     * See if a patch decay with this id replaces an existing decay with given
+     * id. It does if the DSID of the existing decay is a prefix of this DSID,
+     * or if the existing DSID gives the parent half life, the first three
+     * tokens (parent, decay type and DECAY) are equal and the half lives
+     * differ by less than 10 %.
+     * @param existing the id of the existing decay.
+     * @return <code>true</code> if the existing decay is replaced,
+     * <code>false</code> otherwise.
+     */
+    public boolean replaces(DecayId existing){
+        if(dsid.startsWith(existing.dsid))return(true);
+        if(existing.dsid.contains("(") && existing.dsid.contains(")") && firstTokensMatch(existing, 3)){
+            double r = existing.getHalfLifeSeconds() / getHalfLifeSeconds();
+            if(r < 1.1 && r > 0.9)return(true);
+        }
+        return(false);
+    }
+
+    /**
+     * Get the half life of the parent given in the DSID. A new object is
+     * returned on each call, so it may be modified.
+     * @return the half life, or <code>null</code> if the DSID gives none.
+     */
+    public HalfLifeValue getHalfLife(){
+        if(halfLife == null)return(null);
+        return(HalfLifeValue.unpack(HalfLifeValue.pack(halfLife), halfLife.asSeconds()));
+    }
+
+    /**
+     * Get the half life of the parent given in the DSID in seconds.
+     * @return the half life in seconds, or <code>NaN</code> if the DSID gives
+     * none.
+     */
+    public double getHalfLifeSeconds(){
+        return((halfLife != null) ? halfLife.asSeconds() : Double.NaN);
+    }
+
+    @Override
+    public int hashCode(){
+        return(dsid.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object o){
+        return(o instanceof DecayId && ((DecayId)o).dsid.equals(dsid));
+    }
+
+    @Override
+    public String toString(){
+        return(dsid);
+    }
+}
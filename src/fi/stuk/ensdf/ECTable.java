@@ -0,0 +1,129 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.ECRecord;
+import fi.stuk.ensdf.type.Uncertainty;
+import java.util.List;
+
+/**
+ * ECTable keeps the EC (and beta+) records of a dataset as off-heap columns.
+ * @see RecordTable
+ */
+public class ECTable extends RecordTable<ECRecord> {
+    /** The numeric columns. */
+    public static final int IB = 0, DIB = 1, IE = 2, CK = 3, CL = 4, CM = 5;
+
+    /** The text columns. */
+    static final int T_NUCID = 0;
+
+    /** Slots of the uncertainties in the state column. */
+    static final int U_DIB = 0;
+
+    /**
+     * View is an EC record reading its fields from a row of an EC table.
+     */
+    public static class View extends ECRecord implements RecordTable.View {
+        /** The table. */
+        private final ECTable t;
+
+        /** The row. */
+        private int row;
+
+        View(ECTable t){
+            this.t = t;
+            this.ds = t.ds;
+            moveTo(0);
+        }
+
+        @Override
+        public void moveTo(int row){
+            this.row = row;
+            if(row < t.size)this.lineNro = t.getLineNro(row);
+        }
+
+        @Override
+        public int getRow(){
+            return(row);
+        }
+
+        @Override
+        public String getNUCID(){
+            return(t.getText(ECTable.T_NUCID, row));
+        }
+
+        @Override
+        public Double getRI(){
+            double ib = t.getDouble(ECTable.IB, row);
+            double ie = t.getDouble(ECTable.IE, row);
+            if(!Double.isNaN(ib) && !Double.isNaN(ie))return(ib+ie);
+            else if(Double.isNaN(ib))return(t.getValue(ECTable.IE, row));
+            else return(ib);
+        }
+
+        @Override
+        public Uncertainty getDRI(){
+            return(getDIB());
+        }
+
+        @Override
+        public Double getIB(){
+            return(t.getValue(ECTable.IB, row));
+        }
+
+        @Override
+        public Uncertainty getDIB(){
+            return(t.getUncertainty(ECTable.DIB, ECTable.U_DIB, row));
+        }
+
+        @Override
+        public Double getIE(){
+            return(t.getValue(ECTable.IE, row));
+        }
+
+        @Override
+        public Double getCK(){
+            return(t.getValue(ECTable.CK, row));
+        }
+
+        @Override
+        public Double getCL(){
+            return(t.getValue(ECTable.CL, row));
+        }
+
+        @Override
+        public Double getCM(){
+            return(t.getValue(ECTable.CM, row));
+        }
+    }
+
+    /**
+     * Create a table of given EC records.
+     * @param ds the dataset of the records.
+     * @param arena the arena to allocate the columns from.
+     * @param records the records.
+     */
+    ECTable(Dataset ds, MemoryArena arena, List<ECRecord> records){
+        super(ds, arena, records, 6, 1);
+    }
+
+    @Override
+    void store(ECRecord r, int row){
+        put(IB, row, r.getIB());
+        put(DIB, U_DIB, row, r.getDIB());
+        put(IE, row, r.getIE());
+        put(CK, row, r.getCK());
+        put(CL, row, r.getCL());
+        put(CM, row, r.getCM());
+        text[T_NUCID][row] = r.getNUCID();
+    }
+
+    @Override
+    public View view(){
+        return(new View(this));
+    }
+}
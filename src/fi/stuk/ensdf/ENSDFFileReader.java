@@ -0,0 +1,237 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ENSDFFileReader reads ENSDF format data from a file one line at a time.
+ * <p>
+ * Instead of reading the data one character at a time through a {@linkplain java.io.Reader},
+ * the file is mapped into memory with {@linkplain FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long)}
+ * and split into lines by scanning the mapped bytes for line feeds. ENSDF data is
+ * plain 80 column ASCII, so the bytes of a line can be converted into a string
+ * directly.
+ * <p>
+ * Files larger than {@linkplain #REGION_SIZE} are mapped one region at a time.
+ * A line crossing a region boundary is read from the beginning of the next region.
+ * <p>
+ * A reader can also be limited to a range of the file, which allows different
+ * parts of a file to be read in parallel. {@linkplain #findDatasetEnd(java.io.File, long) }
+ * can be used to find positions where the file can be split without splitting
+ * a dataset.
+ * <p>
+ * Typical usage:
+ * <pre>
+ * try(ENSDFFileReader r = new ENSDFFileReader(file)){
+ *     while(r.nextLine()){
+ *         String line = r.getLine();
+ *     }
+ * }
+ * </pre>
+ * @see ENSDFParser#parse(java.io.File, java.lang.String)
+ */
+public class ENSDFFileReader implements Closeable {
+    /** Maximum number of bytes mapped at once. */
+    static final int REGION_SIZE = 1 << 30;
+
+    /** The channel of the file being read. */
+    private final FileChannel channel;
+
+    /** File position where reading starts. */
+    private final long start;
+
+    /** File position where reading ends. */
+    private final long end;
+
+    /** File position of the currently mapped region. */
+    private long regionStart = 0;
+
+    /** The currently mapped region. */
+    private MappedByteBuffer region = null;
+
+    /** Start of the current line in {@linkplain #region}. */
+    private int lineStart = 0;
+
+    /** Length of the current line, including the terminating line feed. */
+    private int lineLength = 0;
+
+    /** Scratch buffer used for converting lines to strings. */
+    private byte[] scratch = new byte[128];
+
+    /**
+     * Open a given file for reading.
+     * @param file the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ENSDFFileReader(File file) throws IOException{
+        this(file, 0, -1);
+    }
+
+    /**
+     * Open a given range of a given file for reading.
+     * @param file the file.
+     * @param start the file position to start reading from.
+     * @param end the file position to stop reading at, or <code>-1</code> to
+     * read until the end of the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ENSDFFileReader(File file, long start, long end) throws IOException{
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.start = start;
+        if(end == -1 || end > channel.size())end = channel.size();
+        this.end = end;
+    }
+
+    /**
+     * Get the size of the data to read.
+     * @return the size in bytes.
+     */
+    public long getSize(){
+        return(end - start);
+    }
+
+    /**
+     * Get the file position following the current line.
+     * @return the file position.
+     */
+    public long getPosition(){
+        if(region == null)return(start);
+        return(regionStart + lineStart + lineLength);
+    }
+
+    /**
+     * Map the region of the file starting from a given file position.
+     * @param pos the file position.
+     * @throws IOException
+     */
+    private void map(long pos) throws IOException{
+        long len = Math.min(REGION_SIZE, end - pos);
+        region = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+        regionStart = pos;
+        lineStart = 0;
+        lineLength = 0;
+    }
+
+    /**
+     * Advance to the next line.
+     * @return <code>true</code> if a line was read, <code>false</code> if the
+     * end of the file was reached.
+     * @throws IOException if mapping the file fails.
+     */
+    public boolean nextLine() throws IOException{
+        if(region == null){
+            if(end <= start)return(false);
+            map(start);
+        }
+        int pos = lineStart + lineLength;
+        int limit = region.limit();
+        if(pos >= limit){
+            if(regionStart + limit >= end)return(false);
+            map(regionStart + limit);
+            pos = 0;
+            limit = region.limit();
+        }
+        int i = pos;
+        while(i < limit && region.get(i) != '\n')i++;
+        if(i == limit && regionStart + limit < end){
+            //Line continues in the next region, remap starting from this line.
+            if(pos == 0)throw new IOException("Line longer than "+REGION_SIZE+" bytes at "+regionStart);
+            map(regionStart + pos);
+            return(nextLine());
+        }
+        lineStart = pos;
+        lineLength = (i < limit) ? i - pos + 1 : i - pos;
+        return(true);
+    }
+
+    /**
+     * See if the current line is blank, i.e. an END record.
+     * @return <code>true</code> if the line is blank, <code>false</code> otherwise.
+     * @see fi.stuk.ensdf.record.EndRecord#isEndRecord() 
+     */
+    public boolean isBlankLine(){
+        for(int i = lineStart;i < lineStart + lineLength;i++){
+            if((region.get(i) & 0xff) > ' ')return(false);
+        }
+        return(true);
+    }
+
+    /**
+     * Find the file position following the first END record at or after a
+     * given file position. The file can be split at the returned position
+     * without splitting a dataset.
+     * @param file the file.
+     * @param pos the file position to start searching from.
+     * @return the file position following the END record, or the size of the
+     * file if no END record is found.
+     * @throws IOException 
+     */
+    public static long findDatasetEnd(File file, long pos) throws IOException{
+        if(pos <= 0)return(0);
+        try(ENSDFFileReader r = new ENSDFFileReader(file, pos - 1, -1)){
+            //Skip the rest of the line pos is in, or the line feed preceding it.
+            r.nextLine();
+            while(r.nextLine()){
+                if(r.isBlankLine())return(r.getPosition());
+            }
+            return(r.end);
+        }
+    }
+
+    /**
+     * Get the current line as a string. The line includes the terminating line
+     * feed, as with {@linkplain ENSDFParser#parse(java.lang.String, java.io.Reader, int, java.lang.String)}.
+     * @return the line.
+     */
+    public String getLine(){
+        if(scratch.length < lineLength)scratch = new byte[lineLength];
+        region.position(lineStart);
+        region.get(scratch, 0, lineLength);
+        return(new String(scratch, 0, lineLength, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Get the buffer holding the current line. The buffer remains valid after
+     * this reader is closed, and is shared by all lines in the same region of
+     * the file.
+     * @return the buffer.
+     * @see #getLineStart() 
+     */
+    public ByteBuffer getBuffer(){
+        return(region);
+    }
+
+    /**
+     * Get the position of the current line in {@linkplain #getBuffer() }.
+     * @return the position.
+     */
+    public int getLineStart(){
+        return(lineStart);
+    }
+
+    /**
+     * Get the length of the current line.
+     * @return the length in bytes, including the terminating line feed.
+     */
+    public int getLineLength(){
+        return(lineLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,301 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.IdentificationRecord;
+import fi.stuk.nuclibre.Main;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ENSDFIndex is an index of the datasets in an ENSDF file, giving the position
+ * of each dataset in the file along with the NUCID, DSID and DATE of its
+ * identification record. The index allows parsing only the datasets of given
+ * nuclides or mass numbers without reading the rest of the file, see
+ * {@linkplain ENSDFParser#parse(java.io.File, java.lang.String, java.util.Collection) }.
+ * <p>
+ * The index of a file is stored in a sidecar file next to it (see
+ * {@linkplain #getIndexFile(java.io.File) }) as tab separated text, one line
+ * per dataset. The first line of the index file holds the size and the
+ * modification time of the indexed file, and an index not matching the file
+ * is rebuilt by {@linkplain #get(java.io.File) }.
+ */
+public class ENSDFIndex {
+    /** Extension of the index files. */
+    public static final String EXTENSION = ".idx";
+
+    /** Tag starting the first line of an index file. */
+    static final String HEADER = "#ENSDFIndex";
+
+    /** Size of the indexed file. */
+    private final long fileSize;
+
+    /** Modification time of the indexed file. */
+    private final long fileModified;
+
+    /** The index entries in file order. */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Entry is the index entry of one dataset.
+     */
+    public static class Entry {
+        /** File position of the identification record. */
+        final long offset;
+        /** Length of the dataset in bytes, including its END record. */
+        final long length;
+        /** Line number of the identification record. */
+        final int lineNro;
+        /** Nuclide identification of the dataset. */
+        final String NUCID;
+        /** Dataset identification. */
+        final String DSID;
+        /** Date of the dataset. */
+        final String DATE;
+
+        Entry(long offset, long length, int lineNro, String NUCID, String DSID, String DATE){
+            this.offset = offset;
+            this.length = length;
+            this.lineNro = lineNro;
+            this.NUCID = NUCID;
+            this.DSID = DSID;
+            this.DATE = DATE;
+        }
+
+        /**
+         * @return the file position of the identification record.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return the length of the dataset in bytes.
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @return the line number of the identification record.
+         */
+        public int getLineNro() {
+            return lineNro;
+        }
+
+        /**
+         * @return the NUCID
+         */
+        public String getNUCID() {
+            return NUCID;
+        }
+
+        /**
+         * @return the DSID
+         */
+        public String getDSID() {
+            return DSID;
+        }
+
+        /**
+         * @return the DATE
+         */
+        public String getDATE() {
+            return DATE;
+        }
+
+        /**
+         * Get the mass number of the dataset, i.e. the leading digits of its NUCID.
+         * @return the mass number, or <code>-1</code> if the NUCID does not start
+         * with a number.
+         */
+        public int getMass(){
+            int i = 0;
+            while(i < NUCID.length() && Character.isDigit(NUCID.charAt(i)))i++;
+            if(i == 0)return(-1);
+            return(Integer.parseInt(NUCID.substring(0, i)));
+        }
+    }
+
+    /**
+     * Create an empty index for a file.
+     * @param fileSize the size of the indexed file.
+     * @param fileModified the modification time of the indexed file.
+     */
+    private ENSDFIndex(long fileSize, long fileModified){
+        this.fileSize = fileSize;
+        this.fileModified = fileModified;
+    }
+
+    /**
+     * Get the index entries.
+     * @return the entries in file order.
+     */
+    public List<Entry> getEntries(){
+        return(entries);
+    }
+
+    /**
+     * Select the entries of given nuclides and mass numbers.
+     * @param ids the NUCIDs (e.g. 137CS) and mass numbers (e.g. 137) to select.
+     * NUCIDs are compared ignoring case.
+     * @return the selected entries in file order.
+     */
+    public List<Entry> select(Collection<String> ids){
+        List<Entry> l = new ArrayList<>();
+        for(Entry e : entries){
+            for(String id : ids){
+                id = id.trim();
+                if(isMass(id) ? Integer.parseInt(id) == e.getMass() : id.equalsIgnoreCase(e.NUCID)){
+                    l.add(e);
+                    break;
+                }
+            }
+        }
+        return(l);
+    }
+
+    /**
+     * See if a given nuclide selection is a mass number.
+     * @param id the selection.
+     * @return <code>true</code> if the selection consists of digits only,
+     * <code>false</code> otherwise.
+     */
+    private static boolean isMass(String id){
+        if(id.isEmpty() || id.length() > 3)return(false);
+        for(int i = 0;i < id.length();i++){
+            if(!Character.isDigit(id.charAt(i)))return(false);
+        }
+        return(true);
+    }
+
+    /**
+     * Get the index file of a given file.
+     * @param file the indexed file.
+     * @return the index file.
+     */
+    public static File getIndexFile(File file){
+        return(new File(file.getPath() + EXTENSION));
+    }
+
+    /**
+     * Get the index of a given file. The index is read from the index file if
+     * it is up to date, otherwise the index is built and written to the index
+     * file.
+     * @param file the file.
+     * @return the index.
+     * @throws IOException if reading the file fails.
+     */
+    public static ENSDFIndex get(File file) throws IOException{
+        File indexFile = getIndexFile(file);
+        if(indexFile.exists()){
+            ENSDFIndex index = read(indexFile);
+            if(index != null && index.fileSize == file.length() && index.fileModified == file.lastModified())return(index);
+        }
+        if(!Main.silent)System.out.println("Indexing ENSDF "+file.getName());
+        ENSDFIndex index = build(file);
+        try{
+            index.write(indexFile);
+        }
+        catch(IOException ex){
+            if(Main.printExceptions)Logger.getLogger(ENSDFIndex.class.getName()).log(Level.WARNING, "Cannot write index file "+indexFile, ex);
+        }
+        return(index);
+    }
+
+    /**
+     * Build the index of a given file.
+     * @param file the file.
+     * @return the index.
+     * @throws IOException
+     */
+    public static ENSDFIndex build(File file) throws IOException{
+        ENSDFIndex index = new ENSDFIndex(file.length(), file.lastModified());
+        try(ENSDFFileReader r = new ENSDFFileReader(file)){
+            int ln = 1;
+            long start = -1;
+            int startLine = -1;
+            IdentificationRecord id = null;
+            while(r.nextLine()){
+                if(r.isBlankLine()){
+                    if(start != -1)index.entries.add(index.createEntry(start, r.getPosition(), startLine, id));
+                    start = -1;
+                }
+                else if(start == -1){
+                    start = r.getPosition() - r.getLineLength();
+                    startLine = ln;
+                    id = new IdentificationRecord();
+                    id.accumulate(r.getLine());
+                    id.parse();
+                }
+                ln++;
+            }
+            if(start != -1)index.entries.add(index.createEntry(start, r.getPosition(), startLine, id));
+        }
+        return(index);
+    }
+
+    /**
+     * Create an entry for a dataset.
+     * @param start the file position of the dataset.
+     * @param end the file position following the dataset.
+     * @param lineNro the line number of the identification record.
+     * @param id the identification record.
+     * @return the entry.
+     */
+    private Entry createEntry(long start, long end, int lineNro, IdentificationRecord id){
+        return(new Entry(start, end - start, lineNro, id.getNUCID(), id.getDSID(), id.getDATE()));
+    }
+
+    /**
+     * Read an index from a given index file.
+     * @param indexFile the index file.
+     * @return the index, or <code>null</code> if the file is not an index file.
+     * @throws IOException
+     */
+    public static ENSDFIndex read(File indexFile) throws IOException{
+        try(BufferedReader r = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.ISO_8859_1)){
+            String line = r.readLine();
+            if(line == null)return(null);
+            String[] h = line.split("\t");
+            if(h.length != 3 || !h[0].equals(HEADER))return(null);
+            ENSDFIndex index = new ENSDFIndex(Long.parseLong(h[1]), Long.parseLong(h[2]));
+            while((line = r.readLine()) != null){
+                String[] f = line.split("\t", -1);
+                if(f.length != 6)return(null);
+                index.entries.add(new Entry(Long.parseLong(f[0]), Long.parseLong(f[1]), Integer.parseInt(f[2]), f[3], f[4], f[5]));
+            }
+            return(index);
+        }
+        catch(NumberFormatException ex){
+            return(null);
+        }
+    }
+
+    /**
+     * Write this index to a given index file.
+     * @param indexFile the index file.
+     * @throws IOException
+     */
+    public void write(File indexFile) throws IOException{
+        try(BufferedWriter w = Files.newBufferedWriter(indexFile.toPath(), StandardCharsets.ISO_8859_1)){
+            w.write(HEADER+"\t"+fileSize+"\t"+fileModified+"\n");
+            for(Entry e : entries){
+                w.write(e.offset+"\t"+e.length+"\t"+e.lineNro+"\t"+e.NUCID+"\t"+e.DSID+"\t"+e.DATE+"\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.Record;
+
+/**
+ * ENSDFListener receives the datasets and records of ENSDF format data as they
+ * are parsed by an {@linkplain ENSDFScanner}.
+ * <p>
+ * The events of a dataset are delivered in file order: first
+ * {@linkplain #onDatasetStart(fi.stuk.ensdf.Dataset) }, then
+ * {@linkplain #onRecord(fi.stuk.ensdf.Dataset, fi.stuk.ensdf.record.Record) }
+ * for each record of the dataset, and finally
+ * {@linkplain #onDatasetEnd(fi.stuk.ensdf.Dataset) }.
+ * @see ENSDFScanner
+ * @see ENSDFParser
+ */
+public interface ENSDFListener {
+    /**
+     * Called when a dataset starts, i.e. once its identification record has
+     * been parsed.
+     * @param ds the dataset. The identification record is available with
+     * {@linkplain Dataset#getIdentificationRecord() }.
+     */
+    void onDatasetStart(Dataset ds);
+
+    /**
+     * Called for each record of a dataset once the record and its continuation
+     * records have been parsed. Records that fail to parse are not delivered.
+     * @param ds the dataset the record belongs to. The header records (e.g.
+     * the normalization record) parsed so far are available from the dataset.
+     * @param r the record.
+     */
+    void onRecord(Dataset ds, Record r);
+
+    /**
+     * Called when a dataset ends, i.e. at its END record or at the end of the
+     * data.
+     * @param ds the dataset.
+     */
+    void onDatasetEnd(Dataset ds);
+}
@@ -6,17 +6,27 @@
 */
 package fi.stuk.ensdf;
 
-import fi.stuk.ensdf.record.CommentRecord;
-import fi.stuk.ensdf.record.EndRecord;
-import fi.stuk.ensdf.record.IdentificationRecord;
 import fi.stuk.ensdf.record.Record;
+import fi.stuk.ensdf.type.SymbolTable;
 import fi.stuk.nuclibre.Main;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Parser is a parser for ENSDF format nuclear datasets.
@@ -34,6 +44,35 @@ import java.util.logging.Logger;
  * <p>
  * The parsed datasets can be patched (i.e. their decays replaced or new decays added)
  * by subsequent calls to {@linkplain #patch(java.lang.String, java.io.Reader, int) }.
+ * <p>
+ * Files should preferably be parsed with {@linkplain #parse(java.io.File, java.lang.String) }
+ * and {@linkplain #patch(java.io.File, java.lang.String) }, which read the data
+ * through a memory mapped {@linkplain ENSDFFileReader}. Records parsed from a
+ * file refer to their lines in the mapped file instead of holding copies of
+ * them. The reader based methods remain available for other sources of data.
+ * <p>
+ * Large files can be parsed using several threads with
+ * {@linkplain #parse(java.io.File, java.lang.String, int) }. The file is then
+ * split into chunks at dataset END records, the chunks are parsed in parallel
+ * and the resulting datasets are merged in file order, giving the same result
+ * as parsing the file with a single thread.
+ * <p>
+ * The files of the ENSDF distribution can be parsed without concatenating them
+ * with {@linkplain #parse(java.util.List, java.lang.String, int) }, either
+ * from a directory or directly from the distribution zip file.
+ * <p>
+ * The datasets of selected nuclides can be parsed from a file without reading
+ * the rest of it with {@linkplain #parse(java.io.File, java.lang.String, java.util.Collection) },
+ * which uses an {@linkplain ENSDFIndex} of the file.
+ * <p>
+ * In lazy mode (see {@linkplain #setLazy(boolean) }) only the record fields
+ * used for encoding are decoded while parsing, and the rest are decoded on first
+ * access.
+ * <p>
+ * The lines are parsed by an {@linkplain ENSDFScanner}, which reports the
+ * datasets to this parser as an {@linkplain ENSDFListener}. The scanner can
+ * also be used directly to process the records without building the nuclide
+ * datasets.
  * @see Dataset
  * @see Record
  * @author Tero Karhunen
@@ -44,26 +83,130 @@ public class ENSDFParser {
      */
     HashMap<String, NuclideDataset> nuclideData = new HashMap<String, NuclideDataset>();
     
-    /** Current dataset being parsed. */
-    Dataset currentDataset = null;
+    /** Flag indicating that we are patching instead of initial parsing. */
+    boolean patching = false;
     
-    /** Current identification record. */
-    IdentificationRecord id = new IdentificationRecord();
+    /** Flag indicating that the datasets have been compacted, see {@linkplain #compact(fi.stuk.ensdf.MemoryArena) }. */
+    boolean compacted = false;
     
-    /** Current end record. */
-    EndRecord end = new EndRecord();
+    /** The scanner parsing the data. The parser receives the datasets from
+     the scanner and adds them to {@linkplain #nuclideData}. */
+    final ENSDFScanner scanner = new ENSDFScanner(new ENSDFListener(){
+        @Override
+        public void onDatasetStart(Dataset ds) {
+            addDataset(ds);
+        }
+
+        @Override
+        public void onRecord(Dataset ds, Record r) {
+        }
+
+        @Override
+        public void onDatasetEnd(Dataset ds) {
+        }
+    });
     
-    /** Current line number in the data. */
-    int ln = 1;
+    /** Datasets parsed from a chunk of a file. If set, parsed datasets are
+     collected here in file order instead of being set to {@linkplain #nuclideData}. */
+    List<Dataset> chunkDatasets = null;
     
-    /** Size of the current input. */
-    double size = 1;
+    /** Number of chunks per thread when parsing in parallel. Having more chunks
+     than threads evens out the differences in chunk parsing times. */
+    static final int CHUNKS_PER_THREAD = 4;
     
-    /** Flag indicating that we are patching instead of initial parsing. */
-    boolean patching = false;
+    /** Name prefix of the ENSDF data files of the ENSDF distribution. */
+    static final String ENSDF_FILE_PREFIX = "ensdf.";
+    
+    /**
+     * Compact all parsed datasets, moving their level, gamma, beta, EC and
+     * alpha records to off-heap tables, see {@linkplain Dataset#compact(fi.stuk.ensdf.MemoryArena) }.
+     * Compacting is done once all data (including patches) has been parsed,
+     * as compacted data can no longer be patched or encoded.
+     * @param arena the arena to allocate the tables from.
+     */
+    public void compact(MemoryArena arena){
+        compacted = true;
+        for(NuclideDataset n : nuclideData.values()){
+            if(n.getAdoptedDataset() != null)n.getAdoptedDataset().compact(arena);
+            for(Decay d : n.getDecayDataset().getDecays())d.compact(arena);
+            for(Reaction r : n.getReactionDataset().reactions)r.compact(arena);
+        }
+    }
+    
+    /**
+     * See if the datasets of this parser have been compacted.
+     * @return <code>true</code> if {@linkplain #compact(fi.stuk.ensdf.MemoryArena) }
+     * has been called, <code>false</code> otherwise.
+     */
+    public boolean isCompacted(){
+        return(compacted);
+    }
+    
+    /**
+     * Check that the datasets of this parser have not been compacted, before
+     * patching them.
+     * @throws IllegalStateException if the datasets have been compacted.
+     */
+    private void checkNotCompacted(){
+        if(compacted)throw new IllegalStateException("Cannot patch compacted data");
+    }
+    
+    /**
+     * Get the symbol table the nuclide IDs and other short, much repeated text
+     * fields of the parsed records are interned to. The table is shared by
+     * the parsers of parallel parsing and by patching, so the symbol ids (see
+     * {@linkplain Dataset#getNUCIDSymbol() }) of all datasets of this parser
+     * are comparable.
+     * @return the symbol table.
+     */
+    public SymbolTable getSymbols(){
+        return(scanner.symbols);
+    }
+    
+    /**
+     * Get the errors found while parsing. Lines that cannot be parsed are
+     * skipped and counted by error, dataset and record type, and the first
+     * offending lines are kept as samples.
+     * @return the errors.
+     */
+    public ParseErrors getErrors(){
+        return(scanner.errors);
+    }
+    
+    /**
+     * Set whether record fields should be decoded lazily. In lazy mode the
+     * fields not needed for encoding (e.g. the mixing ratio of a gamma record or
+     * the spectroscopic strength of a level record) are decoded only when their
+     * getters are first called, which saves time and memory for the large number
+     * of records that are never encoded.
+     * <p>
+     * In eager mode a record with a malformed field is dropped while parsing
+     * and counted in {@linkplain #getErrors() }. In lazy mode malformed fields
+     * that are decoded lazily are not noticed while parsing, so such records
+     * are kept, and the fields are absent once decoded (see
+     * {@linkplain fi.stuk.ensdf.record.Record#getError() }).
+     * @param lazy <code>true</code> to decode fields lazily, <code>false</code>
+     * to decode all fields while parsing (the default).
+     */
+    public void setLazy(boolean lazy){
+        scanner.setLazy(lazy);
+    }
     
-    /** The origin of the data. */
-    String origin;
+    /**
+     * Set whether the data not needed for encoding should be skipped. In
+     * selective mode the records of reaction datasets are skipped without
+     * creating them, leaving the reaction datasets with their identification
+     * records only, and comment records are skipped. Neither is used when
+     * encoding, but they make up most of the ENSDF data.
+     * @param selective <code>true</code> to skip the data, <code>false</code>
+     * to parse all data (the default).
+     * @see ENSDFScanner#setSkipReactions(boolean)
+     * @see ENSDFScanner#setSkipComments(boolean)
+     */
+    public void setSelective(boolean selective){
+        scanner.setSkipReactions(selective);
+        scanner.setSkipComments(selective);
+    }
     
     /**
      * Parse ENSDF format data using a given reader.
@@ -76,31 +219,286 @@ public class ENSDFParser {
      * @throws IOException 
      */
     public void parse(String name, Reader r, int size, String origin) throws IOException{  
-        this.size = size;
-        this.origin = origin;
+        scanner.setOrigin(origin);
         if(!Main.silent)System.out.println("Start parsing ENSDF "+name);
-        StringBuilder buf = new StringBuilder();
-        ln = 1;
-        int in = -1;
-        String line = null;
-        while ( (in = r.read()) != -1){
-            char c = (char)in;
-            if(c == '\n'){
-                buf.append(c);
-                line = buf.toString();
-                buf.delete(0, buf.length());
+        scanner.scan(r, size);
+        if(!Main.silent)System.out.println("Parsing done.");
+    }
+
+    /**
+     * Parse ENSDF format data from a given file. The file is memory mapped and
+     * read with an {@linkplain ENSDFFileReader}.
+     * @param file the file to parse.
+     * @param origin the data origin.
+     * @throws IOException 
+     */
+    public void parse(File file, String origin) throws IOException{
+        scanner.setOrigin(origin);
+        if(!Main.silent)System.out.println("Start parsing ENSDF "+file.getName());
+        scanner.scan(file);
+        if(!Main.silent)System.out.println("Parsing done.");
+    }
+
+    /**
+     * Parse ENSDF format data from a given file using a given number of threads.
+     * <p>
+     * The file is split into chunks at dataset END records (after which the
+     * parser does not carry any state from one dataset to the next), and the
+     * chunks are parsed in a fork-join pool by independent parsers. The
+     * datasets of the chunks are then added to this parser in file order, so
+     * the result is identical to {@linkplain #parse(java.io.File, java.lang.String) }.
+     * @param file the file to parse.
+     * @param origin the data origin.
+     * @param nThreads the number of threads to use.
+     * @throws IOException 
+     */
+    public void parse(File file, String origin, int nThreads) throws IOException{
+        if(nThreads < 2){
+            parse(file, origin);
+            return;
+        }
+        scanner.setOrigin(origin);
+        if(!Main.silent)System.out.println("Start parsing ENSDF "+file.getName()+" using "+nThreads+" threads");
+        long fileSize = file.length();
+        int nChunks = nThreads * CHUNKS_PER_THREAD;
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        for(int i = 1;i < nChunks;i++){
+            long b = ENSDFFileReader.findDatasetEnd(file, fileSize * i / nChunks);
+            if(b > bounds.get(bounds.size()-1) && b < fileSize)bounds.add(b);
+        }
+        bounds.add(fileSize);
+        
+        ForkJoinPool pool = new ForkJoinPool(nThreads);
+        try{
+            //Count the lines of each chunk first, so that the line numbers
+            //of the parsed records match those of a serial parse.
+            List<ChunkTask> counts = new ArrayList<>();
+            for(int i = 0;i < bounds.size()-1;i++)
+                counts.add(new ChunkTask(file, scanner, bounds.get(i), bounds.get(i+1), -1));
+            for(ChunkTask t : counts)pool.execute(t);
+            List<ChunkTask> tasks = new ArrayList<>();
+            int startLine = 1;
+            for(ChunkTask t : counts){
+                tasks.add(new ChunkTask(file, scanner, t.start, t.end, startLine));
+                startLine += t.join().scanner.ln - 1;
+            }
+            for(ChunkTask t : tasks)pool.execute(t);
+            for(ChunkTask t : tasks){
+                ENSDFParser chunk = t.join();
+                for(Dataset d : chunk.chunkDatasets)addDataset(d);
+                scanner.errors.addAll(chunk.scanner.errors);
+                if(!Main.silent)System.out.println("\tParsed "+Math.round(((double)t.end/fileSize)*100)+" % so far.");
             }
-            else buf.append(c);
+            scanner.ln = startLine;
+        }
+        catch(RuntimeException ex){
+            IOException io = getIOException(ex);
+            if(io != null)throw io;
+            throw ex;
+        }
+        finally{
+            pool.shutdown();
+        }
+        if(!Main.silent)System.out.println("Parsing done.");
+    }
 
-            if(line != null){
-                parseLine(line);
-                ln++;
-                line = null;
+    /**
+     * Parse the datasets of given nuclides and mass numbers from a given file.
+     * The datasets are located with the {@linkplain ENSDFIndex} of the file, and
+     * only they are read from the file. The index is built and stored next to
+     * the file if it does not exist or is out of date.
+     * @param file the file to parse.
+     * @param origin the data origin.
+     * @param ids the NUCIDs (e.g. 137CS) and mass numbers (e.g. 137) whose
+     * datasets to parse.
+     * @throws IOException 
+     * @see ENSDFIndex#select(java.util.Collection) 
+     */
+    public void parse(File file, String origin, Collection<String> ids) throws IOException{
+        scanner.setOrigin(origin);
+        List<ENSDFIndex.Entry> entries = ENSDFIndex.get(file).select(ids);
+        if(!Main.silent)System.out.println("Start parsing "+entries.size()+" datasets from ENSDF "+file.getName());
+        for(ENSDFIndex.Entry e : entries){
+            scanner.ln = e.getLineNro();
+            scanner.scan(file, e.getOffset(), e.getOffset() + e.getLength());
+        }
+        if(!Main.silent)System.out.println("Parsing done.");
+    }
+
+    /**
+     * Parse ENSDF format data from given files, directories and zip files
+     * using a given number of threads. This allows parsing the files of the
+     * ENSDF distribution, or the distribution zip file itself, without
+     * concatenating them first.
+     * <p>
+     * The files named <code>ensdf.*</code> in a directory, and the entries
+     * named so in a zip file, are parsed in the order of their names. The zip
+     * entries are read directly from the zip file. The files are parsed
+     * concurrently by independent parsers, and the resulting datasets are added
+     * to this parser in the order of the given files, so the result is the same
+     * as when parsing the files concatenated in that order. The line numbers
+     * of the records are relative to the file they were parsed from.
+     * <p>
+     * A list consisting of a single plain file is parsed with
+     * {@linkplain #parse(java.io.File, java.lang.String, int) }.
+     * @param files the files, directories and zip files to parse.
+     * @param origin the data origin.
+     * @param nThreads the number of threads to use.
+     * @throws IOException 
+     */
+    public void parse(List<File> files, String origin, int nThreads) throws IOException{
+        if(files.size() == 1 && !files.get(0).isDirectory() && !isZipFile(files.get(0))){
+            parse(files.get(0), origin, nThreads);
+            return;
+        }
+        scanner.setOrigin(origin);
+        List<RecursiveTask<ENSDFParser>> tasks = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<ZipFile> zips = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, nThreads));
+        try{
+            for(File f : files){
+                if(f.isDirectory()){
+                    File[] dir = f.listFiles();
+                    if(dir == null)throw new IOException("Cannot list directory "+f);
+                    Arrays.sort(dir);
+                    for(File df : dir){
+                        if(!df.isFile() || !isENSDFFile(df.getName()))continue;
+                        tasks.add(new ChunkTask(df, scanner, 0, -1, 1));
+                        names.add(df.getName());
+                    }
+                }
+                else if(isZipFile(f)){
+                    ZipFile zip = new ZipFile(f);
+                    zips.add(zip);
+                    List<ZipEntry> entries = new ArrayList<>();
+                    Enumeration<? extends ZipEntry> e = zip.entries();
+                    while(e.hasMoreElements()){
+                        ZipEntry ze = e.nextElement();
+                        String name = ze.getName();
+                        if(!ze.isDirectory() && isENSDFFile(name.substring(name.lastIndexOf('/')+1)))entries.add(ze);
+                    }
+                    entries.sort(new Comparator<ZipEntry>(){
+                        @Override
+                        public int compare(ZipEntry o1, ZipEntry o2) {
+                            return(o1.getName().compareTo(o2.getName()));
+                        }
+                    });
+                    for(ZipEntry ze : entries){
+                        tasks.add(new ZipEntryTask(zip, ze, scanner));
+                        names.add(f.getName()+":"+ze.getName());
+                    }
+                }
+                else{
+                    tasks.add(new ChunkTask(f, scanner, 0, -1, 1));
+                    names.add(f.getName());
+                }
+            }
+            if(!Main.silent)System.out.println("Start parsing ENSDF from "+tasks.size()+" files using "+Math.max(1, nThreads)+" threads");
+            for(RecursiveTask<ENSDFParser> t : tasks)pool.execute(t);
+            for(int i = 0;i < tasks.size();i++){
+                ENSDFParser p = tasks.get(i).join();
+                for(Dataset d : p.chunkDatasets)addDataset(d);
+                scanner.errors.addAll(p.scanner.errors);
+                if(!Main.silent)System.out.println("\tParsed "+names.get(i));
             }
-        }        
+        }
+        catch(RuntimeException ex){
+            IOException io = getIOException(ex);
+            if(io != null)throw io;
+            throw ex;
+        }
+        finally{
+            pool.shutdown();
+            for(ZipFile zip : zips)zip.close();
+        }
         if(!Main.silent)System.out.println("Parsing done.");
     }
 
+    /**
+     * See if a given file is a zip file, based on its name.
+     * @param f the file.
+     * @return <code>true</code> if the file is a zip file, <code>false</code> otherwise.
+     */
+    private static boolean isZipFile(File f){
+        return(f.getName().toLowerCase().endsWith(".zip"));
+    }
+
+    /**
+     * See if a file in a directory or zip file is an ENSDF data file.
+     * @param name the name of the file.
+     * @return <code>true</code> if the name starts with {@linkplain #ENSDF_FILE_PREFIX}
+     * (ignoring case), <code>false</code> otherwise.
+     */
+    private static boolean isENSDFFile(String name){
+        return(name.toLowerCase().startsWith(ENSDF_FILE_PREFIX));
+    }
+
+    /**
+     * Patch the parsed data with additional data from a given file.
+     * @param file the file to patch with.
+     * @param origin the data origin.
+     * @throws IOException 
+     * @throws IllegalStateException if the data has been compacted.
+     */
+    public void patch(File file, String origin) throws IOException{
+        checkNotCompacted();
+        patching = true;
+        parse(file, origin);
+    }
+
+    /**
+     * Patch the parsed data with additional data from given files using a
+     * given number of threads. The files are parsed concurrently by
+     * independent parsers, and their datasets are then applied to this parser
+     * in the order of the given files, so the result is identical to patching
+     * with each file in turn with {@linkplain #patch(java.io.File, java.lang.String) }.
+     * <p>
+     * Patching continues past files that cannot be read. Such files, and the
+     * lines of the files that cannot be parsed, are listed in the returned
+     * report instead of being logged one by one.
+     * @param files the files to patch with, in patching order.
+     * @param origin the data origin.
+     * @param nThreads the number of threads to use.
+     * @return the report of patching.
+     * @throws IllegalStateException if the data has been compacted.
+     */
+    public PatchReport patch(List<File> files, String origin, int nThreads){
+        checkNotCompacted();
+        patching = true;
+        scanner.setOrigin(origin);
+        PatchReport report = new PatchReport();
+        List<ChunkTask> tasks = new ArrayList<>();
+        for(File f : files)tasks.add(new ChunkTask(f, scanner, 0, -1, 1));
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, nThreads));
+        try{
+            if(!Main.silent)System.out.println("Start patching from "+files.size()+" files using "+Math.max(1, nThreads)+" threads");
+            for(ChunkTask t : tasks)pool.execute(t);
+            for(int i = 0;i < tasks.size();i++){
+                ENSDFParser p;
+                try{
+                    p = tasks.get(i).join();
+                }
+                catch(RuntimeException ex){
+                    Throwable cause = getIOException(ex);
+                    if(cause == null)cause = (ex.getCause() != null) ? ex.getCause() : ex;
+                    report.addFailure(files.get(i).getName(), cause.toString());
+                    continue;
+                }
+                if(!Main.silent)System.out.println("\tPatch with "+files.get(i).getName());
+                for(Dataset d : p.chunkDatasets)addDataset(d);
+                scanner.errors.addAll(p.scanner.errors);
+                report.addFile(p.chunkDatasets.size(), p.scanner.errors);
+            }
+        }
+        finally{
+            pool.shutdown();
+        }
+        if(!Main.silent)System.out.println("Patching done.");
+        return(report);
+    }
+
     /**
      * Patch the parsed data with additional data from a given reader.
      * @param name name for the data to patch with.
@@ -108,99 +506,146 @@ public class ENSDFParser {
      * @param size patch data size.
      * @param origin the data origin.
      * @throws IOException 
+     * @throws IllegalStateException if the data has been compacted.
      */
     public void patch(String name, Reader r, int size, String origin) throws IOException{  
-        currentDataset = null;
+        checkNotCompacted();
         patching = true;     
         parse(name,r,size, origin);
     }      
     
     /**
-     * Parse a line read from the data with the reader. The linnes should be
-     * standard one line records.
-     * @see Record
-     * @param line the line to parse.
-     */
-    private void parseLine(String line){         
-        if(!Main.silent){
-            if(ln % 200000 == 0 && size > 1)System.out.println("\tParsed "+Math.round(((ln*80d)/size)*100)+" % so far.");
-            else if(ln % 200000 == 0)System.out.println("\tParsed "+ln+" lines so far.");
-        }
-       
-        /** Create dataset, if current dataset doesn't exist.*/         
-        if(currentDataset == null && !line.trim().isEmpty()){
-            int offs = id.accumulate(line);
-            if(offs == 80){
-                id.lineNro = ln;
-                id.parse();
-                currentDataset = Dataset.createDataset(id, origin);
-                currentDataset.lineNro = this.ln;
-                if(!patching)getNuclideDataset(currentDataset.getKey()).set(currentDataset);
-                else{                    
-                    NuclideDataset ds = getNuclideDataset(currentDataset.getKey());
-                    ds.replace(currentDataset);
-                }
-                id = new IdentificationRecord();
-            }
-        }
-        /** Parse the record of the input line to the current dataset.*/
-        else{
-            int offs = end.accumulate(line);
-            if(end.isEndRecord()){
-                currentDataset = null;
-                end.clear();
-            }
-            else{
-                char code = end.getRecordID();
-                char code2 = end.getRecordID2();                
-                boolean comment = end.isComment();
-                end.clear();
-                try {
-                    Record r = null;                   
-                    if(!comment){
-                        r = currentDataset.createRecord(code,code2,line);
-                        r.ds = currentDataset;
-                    }
-                    else r = new CommentRecord(code);                    
-                    r.accumulate(line);
-                    if(!r.isContinuation()){                       
-                        r.lineNro = ln;                       
-                        r.parse();                              
-                        currentDataset.addRecord(r);
-                    }
-                    else{
-                        
-                        currentDataset.continueRecord(r);
-                    }
-
-                } catch (Exception ex) {
-                    if(currentDataset != null && !(currentDataset instanceof Reaction)){
-                        if(Main.printExceptions){
-                            line = line.replaceAll("\n", "");
-                            Logger.getLogger(ENSDFParser.class.getName()).log(Level.WARNING, "ENSDF parser exception at line: "+ln+"\n"+line+"\nCurrent dataset: "+currentDataset.getIdentificationRecord().getDSID(), ex);
-                        }
-                    }
-                }
-            }
+     * Add a parsed dataset to the nuclide dataset it belongs to. When parsing
+     * initially, the dataset is set to the nuclide dataset, and when patching
+     * it replaces the corresponding existing dataset.
+     * @param d the dataset.
+     */
+    private void addDataset(Dataset d){
+        if(chunkDatasets != null){
+            chunkDatasets.add(d);
+            return;
         }
+        NuclideDataset ds = getNuclideDataset(d.getKey(), d.lineNro);
+        if(!patching)ds.set(d);
+        else ds.replace(d);
     }
 
     /**
      * Get a nuclide dataset for given nuclide ID (e.g. Cs-137). If the dataset
      * does not exist, a new one will be created.
      * @param NUCID the nuclide id (e.g. Cs-137)
+     * @param lineNro the line number to set to a new nuclide dataset.
      * @return the nuclide dataset
      */
-    private NuclideDataset getNuclideDataset(String NUCID){
+    NuclideDataset getNuclideDataset(String NUCID, int lineNro){
         NuclideDataset d = nuclideData.get(NUCID);
         if(d == null){
             d = new NuclideDataset(NUCID);
-            d.lineNro = ln;
+            d.lineNro = lineNro;
             nuclideData.put(NUCID, d);
         }
         return(d);
     }
     
+    /**
+     * Find the I/O exception that made a parsing task fail. The exceptions
+     * thrown by the tasks are wrapped in runtime exceptions, and joining a
+     * task may wrap them again.
+     * @param ex the exception thrown by joining a task.
+     * @return the original I/O exception, or <code>null</code> if the task
+     * did not fail because of one.
+     */
+    private static IOException getIOException(Throwable ex){
+        for(Throwable t = ex;t != null;t = t.getCause()){
+            if(t instanceof IOException)return((IOException)t);
+        }
+        return(null);
+    }
+    
+    /**
+     * ChunkTask parses a chunk of a file with an independent parser. A task
+     * created with start line <code>-1</code> only counts the lines of the chunk.
+     */
+    private static class ChunkTask extends RecursiveTask<ENSDFParser>{
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The file to parse. */
+        final File file;
+        /** The scanner whose settings are used for parsing. */
+        final ENSDFScanner settings;
+        /** Start position of the chunk. */
+        final long start;
+        /** End position of the chunk. */
+        final long end;
+        /** Line number of the first line of the chunk. */
+        final int startLine;
+        
+        ChunkTask(File file, ENSDFScanner settings, long start, long end, int startLine){
+            this.file = file;
+            this.settings = settings;
+            this.start = start;
+            this.end = end;
+            this.startLine = startLine;
+        }
+
+        @Override
+        protected ENSDFParser compute() {
+            ENSDFParser p = new ENSDFParser();
+            try{
+                if(startLine == -1){
+                    try(ENSDFFileReader r = new ENSDFFileReader(file, start, end)){
+                        while(r.nextLine())p.scanner.ln++;
+                    }
+                    return(p);
+                }
+                p.scanner.copySettings(settings);
+                p.scanner.printProgress = false;
+                p.chunkDatasets = new ArrayList<>();
+                p.scanner.ln = startLine;
+                p.scanner.scan(file, start, end);
+                return(p);
+            }
+            catch(IOException ex){
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+    
+    /**
+     * ZipEntryTask parses an entry of a zip file with an independent parser.
+     */
+    private static class ZipEntryTask extends RecursiveTask<ENSDFParser>{
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The zip file. */
+        final ZipFile zip;
+        /** The entry to parse. */
+        final ZipEntry entry;
+        /** The scanner whose settings are used for parsing. */
+        final ENSDFScanner settings;
+        
+        ZipEntryTask(ZipFile zip, ZipEntry entry, ENSDFScanner settings){
+            this.zip = zip;
+            this.entry = entry;
+            this.settings = settings;
+        }
+
+        @Override
+        protected ENSDFParser compute() {
+            ENSDFParser p = new ENSDFParser();
+            p.scanner.copySettings(settings);
+            p.scanner.printProgress = false;
+            p.chunkDatasets = new ArrayList<>();
+            try(Reader r = new BufferedReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.ISO_8859_1))){
+                p.scanner.scan(r, (int)Math.max(1, entry.getSize()));
+                return(p);
+            }
+            catch(IOException ex){
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+    
     /**
      * Get the map from nuclide IDs to parsed nuclide datasets.
      * @return the map
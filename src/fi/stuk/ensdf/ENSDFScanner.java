@@ -0,0 +1,481 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.CommentRecord;
+import fi.stuk.ensdf.record.EndRecord;
+import fi.stuk.ensdf.record.IdentificationRecord;
+import fi.stuk.ensdf.record.ParseError;
+import fi.stuk.ensdf.record.Record;
+import fi.stuk.ensdf.type.SymbolTable;
+import fi.stuk.nuclibre.Main;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ENSDFScanner reads ENSDF format data one line at a time and reports the
+ * parsed datasets and records to an {@linkplain ENSDFListener}, without
+ * collecting them into {@linkplain NuclideDataset}s.
+ * <p>
+ * The header records of a dataset (e.g. the normalization and parent records)
+ * are always added to the {@linkplain Dataset} being scanned, as the other
+ * records of the dataset depend on them while parsing. Records are reported
+ * once their continuation records have been parsed, so the listener receives
+ * complete records.
+ * <p>
+ * By default the records are also kept in their dataset, as required for
+ * encoding. When only the records themselves are of interest, e.g. when
+ * collecting all gamma records of the decay datasets, keeping them can be
+ * disabled with {@linkplain #setRetainRecords(boolean) }, so that the data is
+ * scanned in constant memory.
+ * <p>
+ * The records of reaction datasets and comment records, which are not needed
+ * for encoding, can be skipped with {@linkplain #setSkipReactions(boolean) }
+ * and {@linkplain #setSkipComments(boolean) }.
+ * <p>
+ * Lines that cannot be parsed are skipped and counted in
+ * {@linkplain #getErrors() } instead of failing the scan.
+ * <p>
+ * Typical usage:
+ * <pre>
+ * ENSDFScanner s = new ENSDFScanner(new ENSDFListener(){
+ *     public void onDatasetStart(Dataset ds){}
+ *     public void onRecord(Dataset ds, Record r){
+ *         if(r instanceof GammaRecord){...}
+ *     }
+ *     public void onDatasetEnd(Dataset ds){}
+ * });
+ * s.setRetainRecords(false);
+ * s.scan(file);
+ * </pre>
+ * @see ENSDFParser
+ */
+public class ENSDFScanner {
+    /** The listener to report datasets and records to. */
+    private final ENSDFListener listener;
+
+    /** Current dataset being parsed. */
+    Dataset currentDataset = null;
+
+    /** Current identification record. */
+    IdentificationRecord id = new IdentificationRecord();
+
+    /** Current end record. */
+    EndRecord end = new EndRecord();
+
+    /** The last added record, which is reported once its continuation records
+     have been parsed. */
+    Record pending = null;
+
+    /** Current line number in the data. */
+    int ln = 1;
+
+    /** Size of the current input. */
+    double size = 1;
+
+    /** The origin of the data. */
+    String origin;
+
+    /** Flag indicating whether parsing progress should be printed. */
+    boolean printProgress = true;
+
+    /** Flag indicating whether record fields are decoded lazily. */
+    boolean lazy = false;
+
+    /** Flag indicating whether records are kept in their datasets. */
+    boolean retainRecords = true;
+
+    /** Flag indicating whether the records of reaction datasets are skipped. */
+    boolean skipReactions = false;
+
+    /** Flag indicating whether comment records are skipped. */
+    boolean skipComments = false;
+
+    /** Flag indicating that the records of the current dataset are skipped. */
+    boolean skipping = false;
+
+    /** The symbol table the short text fields of the records are interned to. */
+    SymbolTable symbols = new SymbolTable();
+
+    /** The errors found while scanning. */
+    ParseErrors errors = new ParseErrors();
+
+    /** The reader of the file being parsed in lazy mode. The records are
+     backed by its buffer, and the current line is created as a string only
+     when needed. */
+    ENSDFFileReader lineReader = null;
+
+    /**
+     * Create a new scanner reporting to a given listener.
+     * @param listener the listener.
+     */
+    public ENSDFScanner(ENSDFListener listener){
+        this.listener = listener;
+    }
+
+    /**
+     * Set the origin of the data, which is set to the scanned datasets.
+     * @param origin the data origin.
+     */
+    public void setOrigin(String origin){
+        this.origin = origin;
+    }
+
+    /**
+     * Set whether record fields should be decoded lazily.
+     * @param lazy <code>true</code> to decode fields lazily, <code>false</code>
+     * to decode all fields while parsing (the default).
+     * @see ENSDFParser#setLazy(boolean)
+     */
+    public void setLazy(boolean lazy){
+        this.lazy = lazy;
+    }
+
+    /**
+     * Set whether the records should be kept in their datasets. If not, each
+     * dataset holds only its header records and the record being parsed.
+     * @param retainRecords <code>true</code> to keep the records (the default),
+     * <code>false</code> otherwise.
+     */
+    public void setRetainRecords(boolean retainRecords){
+        this.retainRecords = retainRecords;
+    }
+
+    /**
+     * Set whether the records of reaction datasets should be skipped. The
+     * reaction datasets are still reported to the listener, but the lines
+     * following their identification records are skipped up to their END
+     * records without creating records for them.
+     * @param skipReactions <code>true</code> to skip the records,
+     * <code>false</code> to parse them (the default).
+     * @see Reaction
+     */
+    public void setSkipReactions(boolean skipReactions){
+        this.skipReactions = skipReactions;
+    }
+
+    /**
+     * Set whether comment records should be skipped.
+     * @param skipComments <code>true</code> to skip comment records,
+     * <code>false</code> to parse them (the default).
+     * @see CommentRecord
+     */
+    public void setSkipComments(boolean skipComments){
+        this.skipComments = skipComments;
+    }
+
+    /**
+     * Copy the settings of another scanner to this scanner.
+     * @param s the scanner to copy the settings from.
+     */
+    void copySettings(ENSDFScanner s){
+        this.origin = s.origin;
+        this.lazy = s.lazy;
+        this.retainRecords = s.retainRecords;
+        this.skipReactions = s.skipReactions;
+        this.skipComments = s.skipComments;
+        this.symbols = s.symbols;
+    }
+
+    /**
+     * Get the symbol table the short text fields of the scanned records (e.g.
+     * nuclide IDs) are interned to. Scanners with copied settings share the
+     * symbol table.
+     * @return the symbol table.
+     */
+    public SymbolTable getSymbols(){
+        return(symbols);
+    }
+
+    /**
+     * Get the errors found while scanning. Lines that cannot be parsed are
+     * skipped and counted, without throwing exceptions.
+     * @return the errors.
+     */
+    public ParseErrors getErrors(){
+        return(errors);
+    }
+
+    /**
+     * Get the current line number, i.e. the number of lines scanned so far
+     * plus one.
+     * @return the line number.
+     */
+    public int getLineNumber(){
+        return(ln);
+    }
+
+    /**
+     * Scan ENSDF format data using a given reader.
+     * @param r the reader.
+     * @param size input size in bytes for printing progress.
+     * A size of <code>0</code> or <code>1</code> will cause the number of
+     * lines processed to be printed instead of percentage.
+     * @throws IOException
+     */
+    public void scan(Reader r, int size) throws IOException{
+        this.size = size;
+        StringBuilder buf = new StringBuilder();
+        ln = 1;
+        int in = -1;
+        String line = null;
+        while ( (in = r.read()) != -1){
+            char c = (char)in;
+            if(c == '\n'){
+                buf.append(c);
+                line = buf.toString();
+                buf.delete(0, buf.length());
+            }
+            else buf.append(c);
+
+            if(line != null){
+                scanLine(line);
+                ln++;
+                line = null;
+            }
+        }
+        finish();
+    }
+
+    /**
+     * Scan ENSDF format data from a given file. The file is memory mapped and
+     * read with an {@linkplain ENSDFFileReader}. The records refer to their
+     * lines in the mapped file instead of holding copies of them, also when
+     * their fields are decoded eagerly.
+     * @param file the file to scan.
+     * @throws IOException
+     */
+    public void scan(File file) throws IOException{
+        ln = 1;
+        scan(file, 0, -1);
+    }
+
+    /**
+     * Scan a range of a given file, starting from line number {@linkplain #ln}.
+     * @param file the file.
+     * @param start the file position to start scanning from.
+     * @param end the file position to stop scanning at, or <code>-1</code> for
+     * the end of the file.
+     * @throws IOException
+     */
+    void scan(File file, long start, long end) throws IOException{
+        try(ENSDFFileReader r = new ENSDFFileReader(file, start, end)){
+            this.size = r.getSize();
+            while(r.nextLine()){
+                if(skipping && !r.isBlankLine()){
+                    printProgress();
+                    ln++;
+                    continue;
+                }
+                lineReader = r;
+                scanLine(null);
+                ln++;
+            }
+        }
+        finally{
+            lineReader = null;
+        }
+        finish();
+    }
+
+    /**
+     * Scan the lines of a single dataset, e.g. a dataset read from an
+     * {@linkplain ENSDFSnapshot}. The dataset is ended after the last line.
+     * @param lines the lines, starting with the identification record.
+     * @param lineNros the line numbers of the lines.
+     */
+    void scanDataset(List<String> lines, int[] lineNros){
+        for(int i = 0;i < lines.size();i++){
+            ln = lineNros[i];
+            scanLine(lines.get(i));
+        }
+        finish();
+    }
+
+    /**
+     * Print the parsing progress, if the current line is due for it.
+     */
+    private void printProgress(){
+        if(!Main.silent && printProgress){
+            if(ln % 200000 == 0 && size > 1)System.out.println("\tParsed "+Math.round(((ln*80d)/size)*100)+" % so far.");
+            else if(ln % 200000 == 0)System.out.println("\tParsed "+ln+" lines so far.");
+        }
+    }
+
+    /**
+     * Get the line being parsed.
+     * @param line the line, or <code>null</code> for the current line of
+     * {@linkplain #lineReader}.
+     * @return the line.
+     */
+    private String getLine(String line){
+        return((line != null) ? line : lineReader.getLine());
+    }
+
+    /**
+     * See if the line being parsed is blank.
+     * @param line the line, or <code>null</code> for the current line of
+     * {@linkplain #lineReader}.
+     * @return <code>true</code> if the line is blank, <code>false</code> otherwise.
+     */
+    private boolean isBlank(String line){
+        return((line != null) ? line.trim().isEmpty() : lineReader.isBlankLine());
+    }
+
+    /**
+     * Parse a line read from the data. The lines should be standard one line
+     * records. When scanning a file the line is parsed from the buffer of
+     * {@linkplain #lineReader}, and a string is created for it only for
+     * identification records, for handlers which need the line (see
+     * {@linkplain RecordHandler#needsLine() }) and for errors.
+     * @see Record
+     * @param line the line to parse, or <code>null</code> for the current line
+     * of {@linkplain #lineReader}.
+     */
+    private void scanLine(String line){
+        printProgress();
+        if(skipping && !isBlank(line))return;
+
+        /** Create dataset, if current dataset doesn't exist.*/
+        if(currentDataset == null && !isBlank(line)){
+            int offs = id.accumulate(getLine(line));
+            if(offs == 80){
+                id.lineNro = ln;
+                id.setSymbols(symbols);
+                id.parse();
+                currentDataset = Dataset.createDataset(id, origin);
+                currentDataset.setSymbols(symbols);
+                currentDataset.lineNro = this.ln;
+                listener.onDatasetStart(currentDataset);
+                skipping = skipReactions && currentDataset instanceof Reaction;
+                id = new IdentificationRecord();
+            }
+        }
+        /** Parse the record of the input line to the current dataset.*/
+        else{
+            if(line != null)end.accumulate(line);
+            else end.setSource(lineReader.getBuffer(), lineReader.getLineStart(), lineReader.getLineLength());
+            if(end.isEndRecord()){
+                endDataset();
+                end.clear();
+            }
+            else{
+                char code = end.getRecordID();
+                char code2 = end.getRecordID2();
+                boolean comment = end.isComment();
+                end.clear();
+                if(comment && skipComments)return;
+                Record r = null;
+                try {
+                    if(!comment){
+                        RecordHandler h = Dataset.getRecordHandler(code, code2);
+                        if(h == null){
+                            error(line, "unknown ("+code2+code+")", ParseError.UNKNOWN_RECORD, null);
+                            return;
+                        }
+                        r = h.create(currentDataset, code, h.needsLine() ? getLine(line) : null);
+                        r.ds = currentDataset;
+                    }
+                    else r = new CommentRecord(code);
+                    if(line == null && r.getContent().isEmpty())r.setSource(lineReader.getBuffer(), lineReader.getLineStart(), lineReader.getLineLength());
+                    else r.accumulate(getLine(line));
+                    if(!r.isContinuation()){
+                        r.lineNro = ln;
+                        r.parse();
+                        if(!lazy)r.decodeAll();
+                        if(r.getError() != null){
+                            error(line, recordType(r), r.getError(), null);
+                            return;
+                        }
+                        report();
+                        if(!retainRecords)currentDataset.records.clear();
+                        currentDataset.addRecord(r);
+                        pending = r;
+                    }
+                    else{
+
+                        currentDataset.continueRecord(r);
+                        if(r.getError() != null)error(line, recordType(r), r.getError(), null);
+                    }
+
+                } catch (Exception ex) {
+                    error(line, (r != null) ? recordType(r) : "unknown ("+code2+code+")", ParseError.EXCEPTION, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Count an error at the current line. The error is logged if exceptions
+     * should be printed, except for reaction datasets, the records of which
+     * are not used.
+     * @param line the offending line, or <code>null</code> for the current line
+     * of {@linkplain #lineReader}.
+     * @param recordType the record type of the line.
+     * @param error the error.
+     * @param ex the exception causing the error, or <code>null</code> if
+     * there is none.
+     */
+    private void error(String line, String recordType, ParseError error, Exception ex){
+        line = getLine(line);
+        IdentificationRecord ir = currentDataset.getIdentificationRecord();
+        errors.add(ln, ir.getNUCID()+" "+ir.getDSID(), recordType, error, line);
+        if(Main.printExceptions && !(currentDataset instanceof Reaction)){
+            line = line.replaceAll("\n", "");
+            String msg = "ENSDF parser "+((ex != null) ? "exception" : error.getDescription())+" at line: "+ln+"\n"+line+"\nCurrent dataset: "+ir.getDSID();
+            if(ex != null)Logger.getLogger(ENSDFScanner.class.getName()).log(Level.WARNING, msg, ex);
+            else Logger.getLogger(ENSDFScanner.class.getName()).log(Level.WARNING, msg);
+        }
+    }
+
+    /**
+     * Get the record type of a record for counting errors.
+     * @param r the record.
+     * @return the record type.
+     */
+    private static String recordType(Record r){
+        return(r.getClass().getSimpleName());
+    }
+
+    /**
+     * Report the pending record, if any, to the listener.
+     */
+    private void report(){
+        if(pending == null)return;
+        Record r = pending;
+        pending = null;
+        listener.onRecord(currentDataset, r);
+    }
+
+    /**
+     * End the current dataset, if any, reporting the pending record and the
+     * end of the dataset to the listener.
+     */
+    private void endDataset(){
+        skipping = false;
+        if(currentDataset == null)return;
+        report();
+        Dataset ds = currentDataset;
+        currentDataset = null;
+        listener.onDatasetEnd(ds);
+    }
+
+    /**
+     * Finish scanning at the end of the data. A dataset not terminated by an
+     * END record is ended, and a partially read identification record is
+     * discarded.
+     */
+    private void finish(){
+        endDataset();
+        id = new IdentificationRecord();
+        end.clear();
+    }
+}
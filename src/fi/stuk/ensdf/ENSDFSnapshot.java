@@ -0,0 +1,367 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.Record;
+import fi.stuk.nuclibre.Main;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * ENSDFSnapshot stores the nuclide datasets of an {@linkplain ENSDFParser} in
+ * a binary snapshot file, and loads them back. Loading a snapshot skips
+ * reading the whole ENSDF data, the comment records and patching, so a
+ * snapshot can be used as a cache of the parsed data between runs.
+ * <p>
+ * A snapshot is identified by a key, which should change whenever the parsed
+ * data would change, see {@linkplain #createKey(java.util.List, java.lang.String, java.lang.String, java.lang.String) }.
+ * A snapshot with a different key is not loaded.
+ * <p>
+ * A snapshot holds the lines of the records kept in the datasets, not their
+ * parsed values. For each nuclide dataset it holds the NUCID and line number,
+ * followed by its datasets. For each dataset it holds the origin and line
+ * number, the line of the identification record, and the records in line
+ * number order, each with its line number, its line and the lines of its
+ * continuation records. The NUCIDs and origins are written as indices to a
+ * string table built while writing. When loading, the lines are parsed again
+ * by an {@linkplain ENSDFScanner} with the settings of the parser, so the
+ * datasets are built as when parsing the ENSDF data.
+ */
+public class ENSDFSnapshot {
+    /** Tag starting a snapshot file. */
+    static final String MAGIC = "ENSDFSnapshot";
+
+    /** Version of the snapshot format. */
+    static final int VERSION = 2;
+
+    /** Orders records by their line numbers. */
+    private static final Comparator<Record> BY_LINE = new Comparator<Record>(){
+        @Override
+        public int compare(Record o1, Record o2) {
+            return(Integer.compare(o1.lineNro, o2.lineNro));
+        }
+    };
+
+    /** The stream written to. */
+    private DataOutputStream out;
+
+    /** The stream read from. */
+    private DataInputStream in;
+
+    /** Indices of the strings written so far. */
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+
+    /** The strings read so far. */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Create a snapshot writer or reader.
+     */
+    private ENSDFSnapshot(){
+    }
+
+    /**
+     * Create a snapshot key for given input files and settings. The key
+     * consists of the snapshot format version and the checksums of the code
+     * of this library, followed by the names, sizes and CRC32 checksums of the
+     * files, the patch source and the settings. A snapshot written by another
+     * build of the library is not loaded, as the build may keep or drop
+     * different records.
+     * @param files the parsed files, directories and zip files.
+     * @param patchDir the patch directory, or <code>null</code> if the data is
+     * not patched. All files of the directory are included in the key.
+     * @param patchSource the patch source.
+     * @param settings other settings affecting the parsed data.
+     * @return the key, or <code>null</code> if the code of this library cannot
+     * be located, in which case the data should not be cached.
+     * @throws IOException if reading the files fails.
+     */
+    public static String createKey(List<File> files, String patchDir, String patchSource, String settings) throws IOException{
+        File code = getCodeLocation();
+        if(code == null)return(null);
+        StringBuilder b = new StringBuilder();
+        b.append(VERSION).append("|");
+        appendChecksums(b, code);
+        b.append("|");
+        for(File f : files)appendChecksums(b, f);
+        b.append("|");
+        if(patchDir != null)appendChecksums(b, new File(patchDir));
+        b.append("|").append(patchSource).append("|").append(settings);
+        return(b.toString());
+    }
+
+    /**
+     * Get the jar file or class directory the classes of this library are
+     * loaded from.
+     * @return the jar file or directory, or <code>null</code> if it is not known.
+     */
+    private static File getCodeLocation(){
+        CodeSource cs = ENSDFSnapshot.class.getProtectionDomain().getCodeSource();
+        if(cs == null || cs.getLocation() == null || !"file".equals(cs.getLocation().getProtocol()))return(null);
+        try{
+            File f = new File(cs.getLocation().toURI());
+            return(f.exists() ? f : null);
+        }
+        catch(URISyntaxException | IllegalArgumentException ex){
+            return(null);
+        }
+    }
+
+    /**
+     * Append the names, sizes and checksums of a given file, or the files in
+     * a given directory, to a key.
+     * @param b the key.
+     * @param f the file or directory.
+     * @throws IOException
+     */
+    private static void appendChecksums(StringBuilder b, File f) throws IOException{
+        if(f.isDirectory()){
+            File[] dir = f.listFiles();
+            if(dir == null)throw new IOException("Cannot list directory "+f);
+            Arrays.sort(dir);
+            for(File df : dir)appendChecksums(b, df);
+            return;
+        }
+        CRC32 crc = new CRC32();
+        try(FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)){
+            long size = ch.size();
+            for(long pos = 0;pos < size;pos += ENSDFFileReader.REGION_SIZE){
+                crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(ENSDFFileReader.REGION_SIZE, size - pos)));
+            }
+        }
+        b.append(f.getName()).append(":").append(f.length()).append(":").append(Long.toHexString(crc.getValue())).append(";");
+    }
+
+    /**
+     * Write the nuclide datasets of a given parser to a given snapshot file.
+     * The datasets are only read, not modified.
+     * @param file the snapshot file.
+     * @param key the snapshot key.
+     * @param p the parser.
+     * @throws IOException if writing fails.
+     */
+    public static void write(File file, String key, ENSDFParser p) throws IOException{
+        if(!Main.silent)System.out.println("Writing snapshot "+file.getName());
+        ENSDFSnapshot s = new ENSDFSnapshot();
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath()), 1 << 16))){
+            s.out = out;
+            out.writeUTF(MAGIC);
+            out.writeInt(VERSION);
+            s.writeString(key);
+            out.writeInt(p.nuclideData.size());
+            for(Map.Entry<String, NuclideDataset> e : p.nuclideData.entrySet()){
+                NuclideDataset n = e.getValue();
+                List<Dataset> datasets = new ArrayList<>();
+                if(n.getAdoptedDataset() != null)datasets.add(n.getAdoptedDataset());
+                datasets.addAll(n.getDecayDataset().getDecays());
+                datasets.addAll(n.getReactionDataset().reactions);
+                s.writeString(e.getKey());
+                out.writeInt(n.getLineNro());
+                out.writeInt(datasets.size());
+                for(Dataset d : datasets)s.writeDataset(d);
+            }
+        }
+    }
+
+    /**
+     * Read the nuclide datasets of a given parser from a given snapshot file.
+     * The datasets are parsed from the lines of the snapshot with the settings
+     * and the symbol table of the parser, and are set to the parser only once
+     * the whole snapshot has been read.
+     * <p>
+     * A snapshot with the given key which cannot be read is logged and
+     * deleted, so that it is written again.
+     * @param file the snapshot file.
+     * @param key the snapshot key.
+     * @param p the parser.
+     * @return <code>true</code> if the snapshot was read, <code>false</code>
+     * if the file does not exist, is not a snapshot with the given key, or
+     * cannot be read.
+     */
+    public static boolean read(File file, String key, ENSDFParser p){
+        if(!file.exists())return(false);
+        ENSDFSnapshot s = new ENSDFSnapshot();
+        boolean matched = false;
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), 1 << 16))){
+            s.in = in;
+            if(!in.readUTF().equals(MAGIC) || in.readInt() != VERSION)return(false);
+            if(!key.equals(s.readString()))return(false);
+            matched = true;
+            if(!Main.silent)System.out.println("Reading snapshot "+file.getName());
+            ENSDFParser loaded = new ENSDFParser();
+            loaded.scanner.copySettings(p.scanner);
+            loaded.scanner.printProgress = false;
+            int nNuclides = in.readInt();
+            for(int i = 0;i < nNuclides;i++){
+                String NUCID = s.readString();
+                loaded.getNuclideDataset(NUCID, in.readInt());
+                int nDatasets = in.readInt();
+                for(int j = 0;j < nDatasets;j++)s.readDataset(loaded.scanner);
+            }
+            if(in.read() != -1)throw new IOException("Unexpected data at the end of the snapshot");
+            p.nuclideData = loaded.nuclideData;
+            return(true);
+        }
+        catch(IOException | RuntimeException ex){
+            if(!matched){
+                if(Main.printExceptions)Logger.getLogger(ENSDFSnapshot.class.getName()).log(Level.WARNING, "Cannot read snapshot "+file, ex);
+                return(false);
+            }
+            Logger.getLogger(ENSDFSnapshot.class.getName()).log(Level.WARNING, "Cannot read snapshot "+file+", deleting it", ex);
+            file.delete();
+            return(false);
+        }
+    }
+
+    /**
+     * Write a dataset: its origin and line number, the line of its
+     * identification record, and its records in line number order, see
+     * {@linkplain #writeRecord(fi.stuk.ensdf.record.Record) }. The header
+     * records (e.g. the parent record) are written with the other records, as
+     * the records following them depend on them.
+     * @param d the dataset.
+     * @throws IOException if the dataset has been compacted.
+     */
+    private void writeDataset(Dataset d) throws IOException{
+        if(d.columns != null)throw new IOException("Cannot write compacted dataset "+d+" to snapshot");
+        List<Record> records = new ArrayList<>(d.records);
+        for(Record r : new Record[]{d.parentRecord, d.normalizationRecord, d.productionNormalizationRecord, d.qValueRecord, d.historyRecord}){
+            if(r != null)records.add(r);
+        }
+        Collections.sort(records, BY_LINE);
+        writeString(d.getOrigin());
+        out.writeInt(d.lineNro);
+        writeLine(d.getIdentificationRecord().getLine());
+        out.writeInt(records.size());
+        for(Record r : records)writeRecord(r);
+    }
+
+    /**
+     * Read a dataset written with {@linkplain #writeDataset(fi.stuk.ensdf.Dataset) }
+     * and parse it with a given scanner, which reports it to its parser.
+     * @param scanner the scanner.
+     * @throws IOException
+     */
+    private void readDataset(ENSDFScanner scanner) throws IOException{
+        scanner.setOrigin(readString());
+        List<String> lines = new ArrayList<>();
+        int[] lineNros = new int[16];
+        lineNros[0] = in.readInt();
+        lines.add(readLine());
+        int nRecords = in.readInt();
+        for(int i = 0;i < nRecords;i++){
+            int lineNro = in.readInt();
+            int nLines = in.readUnsignedByte();
+            for(int j = 0;j < nLines;j++){
+                if(lines.size() == lineNros.length)lineNros = Arrays.copyOf(lineNros, lineNros.length*2);
+                lineNros[lines.size()] = lineNro;
+                lines.add(readLine());
+            }
+        }
+        scanner.scanDataset(lines, lineNros);
+    }
+
+    /**
+     * Write a record: its line number, followed by the number of its lines,
+     * its line and the lines of its continuation records.
+     * @param r the record.
+     * @throws IOException
+     */
+    private void writeRecord(Record r) throws IOException{
+        List<Record> continuations = r.getContinuations();
+        int nLines = 1 + ((continuations != null) ? continuations.size() : 0);
+        if(nLines > 255)throw new IOException("Too many continuation records at line "+r.lineNro);
+        out.writeInt(r.lineNro);
+        out.writeByte(nLines);
+        writeLine(r.getLine());
+        if(continuations != null){
+            for(Record c : continuations)writeLine(c.getLine());
+        }
+    }
+
+    /**
+     * Write a line as its length followed by its characters in ISO-8859-1,
+     * the encoding of ENSDF files.
+     * @param line the line.
+     * @throws IOException
+     */
+    private void writeLine(String line) throws IOException{
+        byte[] b = line.getBytes(StandardCharsets.ISO_8859_1);
+        out.writeShort(b.length);
+        out.write(b);
+    }
+
+    /**
+     * Read a line written with {@linkplain #writeLine(java.lang.String) }.
+     * @return the line.
+     * @throws IOException
+     */
+    private String readLine() throws IOException{
+        byte[] b = new byte[in.readUnsignedShort()];
+        in.readFully(b);
+        return(new String(b, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Write a string as an index to the string table, adding the string to
+     * the table if it has not been written yet.
+     * @param s the string, may be <code>null</code>.
+     * @throws IOException
+     */
+    private void writeString(String s) throws IOException{
+        if(s == null){
+            out.writeInt(-2);
+            return;
+        }
+        Integer ind = stringIndices.get(s);
+        if(ind != null){
+            out.writeInt(ind);
+            return;
+        }
+        stringIndices.put(s, stringIndices.size());
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(-1);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    /**
+     * Read a string written with {@linkplain #writeString(java.lang.String) }.
+     * @return the string.
+     * @throws IOException
+     */
+    private String readString() throws IOException{
+        int ind = in.readInt();
+        if(ind == -2)return(null);
+        if(ind >= 0)return(strings.get(ind));
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        String s = new String(b, StandardCharsets.UTF_8);
+        strings.add(s);
+        return(s);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.GammaRecord;
+import fi.stuk.ensdf.type.Uncertainty;
+import java.util.List;
+
+/**
+ * GammaTable keeps the gamma records of a dataset as off-heap columns.
+ * @see RecordTable
+ */
+public class GammaTable extends RecordTable<GammaRecord> {
+    /** The numeric columns. */
+    public static final int E = 0, DE = 1, RI = 2, DRI = 3, MR = 4, DMR = 5,
+            CC = 6, DCC = 7, TI = 8, DTI = 9, KC = 10, LC = 11, MC = 12;
+
+    /** The text columns. */
+    static final int T_NUCID = 0, T_G = 1, T_M = 2, T_C = 3, T_COIN = 4, T_Q = 5;
+
+    /** Slots of the uncertainties in the state column. */
+    static final int U_DE = 0, U_DRI = 1, U_DMR = 2, U_DCC = 3, U_DTI = 4;
+
+    /**
+     * View is a gamma record reading its fields from a row of a gamma table.
+     */
+    public static class View extends GammaRecord implements RecordTable.View {
+        /** The table. */
+        private final GammaTable t;
+
+        /** The row. */
+        private int row;
+
+        View(GammaTable t){
+            this.t = t;
+            this.ds = t.ds;
+            moveTo(0);
+        }
+
+        @Override
+        public void moveTo(int row){
+            this.row = row;
+            if(row < t.size)this.lineNro = t.getLineNro(row);
+        }
+
+        @Override
+        public int getRow(){
+            return(row);
+        }
+
+        @Override
+        public void decodeAll(){
+        }
+
+        @Override
+        public String getNUCID(){
+            return(t.getText(GammaTable.T_NUCID, row));
+        }
+
+        @Override
+        public String getG(){
+            return(t.getText(GammaTable.T_G, row));
+        }
+
+        @Override
+        public Double getE(){
+            return(t.getValue(GammaTable.E, row));
+        }
+
+        @Override
+        public Uncertainty getDE(){
+            return(t.getUncertainty(GammaTable.DE, GammaTable.U_DE, row));
+        }
+
+        @Override
+        public Double getRI(){
+            return(t.getValue(GammaTable.RI, row));
+        }
+
+        @Override
+        public Uncertainty getDRI(){
+            return(t.getUncertainty(GammaTable.DRI, GammaTable.U_DRI, row));
+        }
+
+        @Override
+        public String getM(){
+            return(t.getText(GammaTable.T_M, row));
+        }
+
+        @Override
+        public Double getMR(){
+            return(t.getValue(GammaTable.MR, row));
+        }
+
+        @Override
+        public Uncertainty getDMR(){
+            return(t.getUncertainty(GammaTable.DMR, GammaTable.U_DMR, row));
+        }
+
+        @Override
+        public Double getCC(){
+            return(t.getValue(GammaTable.CC, row));
+        }
+
+        @Override
+        public Uncertainty getDCC(){
+            return(t.getUncertainty(GammaTable.DCC, GammaTable.U_DCC, row));
+        }
+
+        @Override
+        public Double getTI(){
+            return(t.getValue(GammaTable.TI, row));
+        }
+
+        @Override
+        public Uncertainty getDTI(){
+            return(t.getUncertainty(GammaTable.DTI, GammaTable.U_DTI, row));
+        }
+
+        @Override
+        public String getC(){
+            return(t.getText(GammaTable.T_C, row));
+        }
+
+        @Override
+        public String getCOIN(){
+            return(t.getText(GammaTable.T_COIN, row));
+        }
+
+        @Override
+        public String getQ(){
+            return(t.getText(GammaTable.T_Q, row));
+        }
+
+        @Override
+        public Double getKc(){
+            return(t.getValue(GammaTable.KC, row));
+        }
+
+        @Override
+        public Double getLc(){
+            return(t.getValue(GammaTable.LC, row));
+        }
+
+        @Override
+        public Double getMc(){
+            return(t.getValue(GammaTable.MC, row));
+        }
+    }
+
+    /**
+     * Create a table of given gamma records.
+     * @param ds the dataset of the records.
+     * @param arena the arena to allocate the columns from.
+     * @param records the records.
+     */
+    GammaTable(Dataset ds, MemoryArena arena, List<GammaRecord> records){
+        super(ds, arena, records, 13, 6);
+    }
+
+    @Override
+    void store(GammaRecord r, int row){
+        put(E, row, r.getE());
+        put(DE, U_DE, row, r.getDE());
+        put(RI, row, r.getRI());
+        put(DRI, U_DRI, row, r.getDRI());
+        put(MR, row, r.getMR());
+        put(DMR, U_DMR, row, r.getDMR());
+        put(CC, row, r.getCC());
+        put(DCC, U_DCC, row, r.getDCC());
+        put(TI, row, r.getTI());
+        put(DTI, U_DTI, row, r.getDTI());
+        put(KC, row, r.getKc());
+        put(LC, row, r.getLc());
+        put(MC, row, r.getMc());
+        text[T_NUCID][row] = r.getNUCID();
+        text[T_G][row] = r.getG();
+        text[T_M][row] = r.getM();
+        text[T_C][row] = r.getC();
+        text[T_COIN][row] = r.getCOIN();
+        text[T_Q][row] = r.getQ();
+    }
+
+    @Override
+    public View view(){
+        return(new View(this));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.LevelRecord;
+import fi.stuk.ensdf.type.HalfLifeValue;
+import fi.stuk.ensdf.type.SValue;
+import fi.stuk.ensdf.type.Uncertainty;
+import java.util.List;
+
+/**
+ * LevelTable keeps the level records of a dataset as off-heap columns. The
+ * half life column holds the half lives in seconds.
+ * @see RecordTable
+ */
+public class LevelTable extends RecordTable<LevelRecord> {
+    /** The numeric columns. */
+    public static final int E = 0, DE = 1, T = 2, DT = 3;
+
+    /** The text columns. */
+    static final int T_NUCID = 0, T_L = 1, T_J = 2, T_L2 = 3, T_DS = 4, T_C = 5,
+            T_MS = 6, T_Q = 7;
+
+    /** Slots of the uncertainties in the state column. */
+    static final int U_DE = 0, U_DT = 1;
+
+    /** Position of the half life state in the state column. */
+    static final int S_T = 2 * Uncertainty.PACKED_BITS;
+
+    /** Position of the S-value flag in the state column. */
+    static final int S_S = S_T + HalfLifeValue.PACKED_BITS;
+
+    /**
+     * View is a level record reading its fields from a row of a level table.
+     */
+    public static class View extends LevelRecord implements RecordTable.View {
+        /** The table. */
+        private final LevelTable t;
+
+        /** The row. */
+        private int row;
+
+        View(LevelTable t){
+            this.t = t;
+            this.ds = t.ds;
+            moveTo(0);
+        }
+
+        @Override
+        public void moveTo(int row){
+            this.row = row;
+            if(row < t.size){
+                this.lineNro = t.getLineNro(row);
+                this.MS = t.getText(LevelTable.T_MS, row);
+            }
+        }
+
+        @Override
+        public int getRow(){
+            return(row);
+        }
+
+        @Override
+        public void decodeAll(){
+        }
+
+        @Override
+        public String getNUCID(){
+            return(t.getText(LevelTable.T_NUCID, row));
+        }
+
+        @Override
+        public String getL(){
+            return(t.getText(LevelTable.T_L, row));
+        }
+
+        @Override
+        public Double getE(){
+            return(t.getValue(LevelTable.E, row));
+        }
+
+        @Override
+        public Uncertainty getDE(){
+            return(t.getUncertainty(LevelTable.DE, LevelTable.U_DE, row));
+        }
+
+        @Override
+        public String getJ(){
+            return(t.getText(LevelTable.T_J, row));
+        }
+
+        @Override
+        public HalfLifeValue getT(){
+            return(HalfLifeValue.unpack(t.getState(row, LevelTable.S_T, HalfLifeValue.PACKED_MASK), t.getDouble(LevelTable.T, row)));
+        }
+
+        @Override
+        public Uncertainty getDT(){
+            return(t.getUncertainty(LevelTable.DT, LevelTable.U_DT, row));
+        }
+
+        @Override
+        public String getL2(){
+            return(t.getText(LevelTable.T_L2, row));
+        }
+
+        @Override
+        public SValue getS(){
+            return((t.getState(row, LevelTable.S_S, 1) != 0) ? new SValue() : null);
+        }
+
+        @Override
+        public String getDS(){
+            return(t.getText(LevelTable.T_DS, row));
+        }
+
+        @Override
+        public String getC(){
+            return(t.getText(LevelTable.T_C, row));
+        }
+
+        @Override
+        public String getQ(){
+            return(t.getText(LevelTable.T_Q, row));
+        }
+    }
+
+    /**
+     * Create a table of given level records.
+     * @param ds the dataset of the records.
+     * @param arena the arena to allocate the columns from.
+     * @param records the records.
+     */
+    LevelTable(Dataset ds, MemoryArena arena, List<LevelRecord> records){
+        super(ds, arena, records, 4, 8);
+    }
+
+    @Override
+    void store(LevelRecord r, int row){
+        put(E, row, r.getE());
+        put(DE, U_DE, row, r.getDE());
+        HalfLifeValue hl = r.getT();
+        put(T, row, (hl == null) ? null : hl.asSeconds());
+        putState(row, S_T, HalfLifeValue.pack(hl));
+        put(DT, U_DT, row, r.getDT());
+        if(r.getS() != null)putState(row, S_S, 1);
+        text[T_NUCID][row] = r.getNUCID();
+        text[T_L][row] = r.getL();
+        text[T_J][row] = r.getJ();
+        text[T_L2][row] = r.getL2();
+        text[T_DS][row] = r.getDS();
+        text[T_C][row] = r.getC();
+        text[T_MS][row] = r.MS;
+        text[T_Q][row] = r.getQ();
+    }
+
+    @Override
+    public View view(){
+        return(new View(this));
+    }
+}
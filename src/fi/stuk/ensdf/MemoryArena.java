@@ -0,0 +1,103 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MemoryArena allocates off-heap memory for {@linkplain RecordTable}s. The
+ * memory is allocated as large direct buffers, which are divided into the
+ * regions requested with {@linkplain #allocate(int) }, so that many small
+ * tables (one per dataset and record type) do not each need a direct buffer
+ * of their own.
+ * <p>
+ * Direct buffers are released by the garbage collector, so the memory of an
+ * arena is released once the arena and the tables allocated from it are no
+ * longer referenced. Keeping each ENSDF release in an arena of its own allows
+ * releasing one release without affecting the others.
+ * @see Dataset#compact(fi.stuk.ensdf.MemoryArena)
+ */
+public class MemoryArena {
+    /** Default size of the blocks of memory allocated at a time. */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /** Size of the blocks of memory allocated at a time. */
+    private final int blockSize;
+
+    /** The blocks allocated so far. */
+    private final List<ByteBuffer> blocks = new ArrayList<>();
+
+    /** The block regions are currently allocated from. */
+    private ByteBuffer current = null;
+
+    /** Total number of bytes allocated in regions. */
+    private long allocated = 0;
+
+    /**
+     * Create an arena allocating memory in blocks of the default size.
+     */
+    public MemoryArena(){
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Create an arena allocating memory in blocks of a given size.
+     * @param blockSize the block size in bytes. Regions larger than the block
+     * size are allocated as blocks of their own.
+     */
+    public MemoryArena(int blockSize){
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocate a region of memory. The region is zeroed and uses the native
+     * byte order.
+     * @param size the size of the region in bytes.
+     * @return the region, positioned at zero.
+     */
+    public synchronized ByteBuffer allocate(int size){
+        size = (size + 7) & ~7;
+        allocated += size;
+        if(size > blockSize / 4){
+            ByteBuffer b = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+            blocks.add(b);
+            return(b);
+        }
+        if(current == null || current.remaining() < size){
+            current = ByteBuffer.allocateDirect(blockSize).order(ByteOrder.nativeOrder());
+            blocks.add(current);
+        }
+        int p = current.position();
+        current.limit(p + size);
+        ByteBuffer region = current.slice().order(ByteOrder.nativeOrder());
+        current.limit(current.capacity());
+        current.position(p + size);
+        return(region);
+    }
+
+    /**
+     * Get the number of bytes allocated in regions.
+     * @return the number of bytes.
+     */
+    public synchronized long getAllocated(){
+        return(allocated);
+    }
+
+    /**
+     * Get the number of bytes reserved in blocks, including the unused parts
+     * of the blocks.
+     * @return the number of bytes.
+     */
+    public synchronized long getReserved(){
+        long n = 0;
+        for(ByteBuffer b : blocks)n += b.capacity();
+        return(n);
+    }
+}
@@ -6,8 +6,8 @@
 */
 package fi.stuk.ensdf;
 
-import fi.stuk.ensdf.type.HalfLifeValue;
 import fi.stuk.nuclibre.Main;
+import java.util.List;
 
 /**
  The Evaluated Nuclear Structure Data File (ENSDF) is made up of a collection of
@@ -94,123 +94,26 @@ mass chain was evaluated.  */
         else if(d instanceof Reaction)reactionDataset.add((Reaction)d);
         else if(d instanceof DecayDataset)setDecayDataset((DecayDataset) d);
         else if(d instanceof Decay){
-            String DSID = d.getIdentificationRecord().getDSID();    
+            DecayId id = ((Decay)d).getDecayId();
+            String DSID = id.getDSID();
+            
+            //See if existing decays should be replaced, or a new one added.
+            //There may be the same decay twice in ENSDF, all are replaced.
+            List<Decay> replaced = decayDataset.findReplaced(id);
             
             //Ugly workaround:
             //sometimes ENSDF B+ decay is represented by LARA EC decay
-            if(DSID.contains("EC DECAY")){
-                int ind = shouldReplace(DSID);
-                if(ind == -1){
-                    String tryDSID = DSID.replace("EC DECAY", "B+ DECAY");
-                    ind = shouldReplace(tryDSID);                    
-                }
-                if(ind != -1){
-                    if(!Main.silent) System.out.println("\tReplace "+decayDataset.decays.get(ind).getIdentificationRecord().getDSID()+" with "+DSID);
-                    this.decayDataset.decays.remove(ind);
-                }
-                else if(!Main.silent) System.out.println("\tAdd new decay "+DSID);
-                this.decayDataset.decays.add((Decay)d);
-                return;
-            }
+            if(replaced.isEmpty() && DSID.contains("EC DECAY"))
+                replaced = decayDataset.findReplaced(new DecayId(DSID.replace("EC DECAY", "B+ DECAY")));
             
-            //See if an existing decay should be replaced, or a new one added.
-            int ind = shouldReplace(DSID);
-            boolean replaced = false;
-            if(ind != -1){
-                    if(!Main.silent) System.out.println("\tReplace "+decayDataset.decays.get(ind).getIdentificationRecord().getDSID()+" with "+DSID);
-                    this.decayDataset.decays.remove(ind);                    
-                    replaced = true;
-                }
-                else if(!Main.silent) System.out.println("\tAdd new decay "+DSID);
-                this.decayDataset.decays.add((Decay)d);
-                
-            //Ugly workaround:
-            //there may be same decay twice in ENSDF, must replace both
-            if(replaced){
-                ind = shouldReplace(DSID);
-                if(ind != -1 && ind != decayDataset.decays.size()-1){
-                    if(!Main.silent) System.out.println("\tReplace "+decayDataset.decays.get(ind).getIdentificationRecord().getDSID()+" with "+DSID);
-                    this.decayDataset.decays.remove(ind);                    
-                }        
-            }            
-        }
-    }
-    
-    /**
-     * See if a decay should be replaced with a decay with given DSID.
-     * @param DSID the DSID to replace with.
-     * @return the index of the decay to replace, or <code>-1</code> if there is
-     * no decay to replace.
-     */
-    private int shouldReplace(String DSID){        
-        for(int i = 0;i < decayDataset.decays.size();i++){   
-            Decay dec = decayDataset.decays.get(i);
-                if(compareNames(DSID, dec.getIdentificationRecord().getDSID())){                    
-                    return(i);
-                }
+            for(int i = 0;i < replaced.size();i++){
+                Decay old = replaced.get(i);
+                if(!Main.silent) System.out.println("\tReplace "+((i > 0) ? "duplicate " : "")+old.getIdentificationRecord().getDSID()+" with "+DSID);
+                decayDataset.remove(old);
             }
-        return(-1);
-    }
-    
-    /**
-     * Compare the DSID of two decays, in order to find out if a decay should
-     * be replaced. 
-     * @param patchDSID the patching data DSID.
-     * @param existingDSID the existing data DSID.
-     * @return <code>true</code> if the DSIDs match, <code>false</code> otherwise.
-     */
-    private boolean compareNames(String patchDSID, String existingDSID){        
-        if(patchDSID.startsWith(existingDSID))return(true);
-        if(existingDSID.contains("(") && existingDSID.contains(")") && firstToksMatch(patchDSID, existingDSID,3)){
-            HalfLifeValue hl1 = getHalfLifeFromDSID(existingDSID);
-            HalfLifeValue hl2 = getHalfLifeFromDSID(patchDSID);
-            double r = hl1.asSeconds() / hl2.asSeconds();            
-            if(r < 1.1 && r > 0.9)return(true);
+            if(replaced.isEmpty() && !Main.silent) System.out.println("\tAdd new decay "+DSID);
+            decayDataset.add((Decay)d);
         }
-        return(false);
-    }
-    
-    /**
-     * Compare first tokens of given strings.
-     * @param s1 the first string.
-     * @param s2 the second string.
-     * @param n the number of tokens that must match.
-     * @return <code>true</code> if the given number of first tokens match, <code>
-     * false</code> otherwise.
-     */
-    private boolean firstToksMatch(String s1, String s2, int n){
-        String[] t1 = s1.split("\\s+");
-        String[] t2 = s2.split("\\s+");
-        for(int i = 0;i < n;i++){
-            if(!t1[i].equals(t2[i]))return(false);
-        }
-        return(true);
-    }
-    
-    /**
-     * Get halflife from DSID.
-     * @param dsid the DSID to get the halflife from.
-     * @return the half life or <code>null</code> if it cannot be determined.
-     */
-    private HalfLifeValue getHalfLifeFromDSID(String dsid){
-        String[] tok = dsid.split("\\s+");
-        int start = -1;
-        if(tok.length > 4  && dsid.contains("(") && dsid.contains(")")){
-            for(int j = 3;j < tok.length;j++){
-                String num = tok[j].replace("(", "");
-                if(num.length() > 0 && Character.isDigit(num.charAt(0))){
-                    start = j;
-                    break;
-                }
-            }
-            if(start == -1)return(null);
-        //if(tok.length > 4  && tok[3].contains("(") && tok[4].contains(")")){        
-                String sHalf = tok[start].replace("(","")+" "+tok[start+1].replace(")","");
-                HalfLifeValue hl = new HalfLifeValue();                
-                hl.parse(sHalf);        
-                return(hl);
-            }
-        else return(null);
     }
     
     /** Get the adopted dataset.
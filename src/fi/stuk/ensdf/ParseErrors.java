@@ -0,0 +1,200 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.ParseError;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ParseErrors collects the errors found while parsing ENSDF data. The errors
+ * are counted by error, by dataset and by record type, and the first
+ * {@linkplain #MAX_SAMPLES} offending lines are kept as samples.
+ * @see ENSDFParser#getErrors()
+ * @see ENSDFScanner#getErrors()
+ */
+public class ParseErrors {
+    /** Maximum number of sample lines kept. */
+    public static final int MAX_SAMPLES = 100;
+
+    /** Total number of errors. */
+    private int count = 0;
+
+    /** Number of errors by error. */
+    private final Map<ParseError, Integer> byError = new EnumMap<>(ParseError.class);
+
+    /** Number of errors by dataset (NUCID and DSID), in order of appearance. */
+    private final Map<String, Integer> byDataset = new LinkedHashMap<>();
+
+    /** Number of errors by record type, in order of appearance. */
+    private final Map<String, Integer> byRecordType = new LinkedHashMap<>();
+
+    /** The sample lines. */
+    private final List<Sample> samples = new ArrayList<>();
+
+    /**
+     * Sample is an offending line.
+     */
+    public static class Sample {
+        /** Line number of the line. */
+        final int lineNro;
+        /** Dataset of the line. */
+        final String dataset;
+        /** Record type of the line. */
+        final String recordType;
+        /** The error. */
+        final ParseError error;
+        /** The line. */
+        final String line;
+
+        Sample(int lineNro, String dataset, String recordType, ParseError error, String line){
+            this.lineNro = lineNro;
+            this.dataset = dataset;
+            this.recordType = recordType;
+            this.error = error;
+            this.line = line;
+        }
+
+        /**
+         * @return the line number of the line.
+         */
+        public int getLineNro() {
+            return lineNro;
+        }
+
+        /**
+         * @return the dataset of the line, i.e. its NUCID and DSID.
+         */
+        public String getDataset() {
+            return dataset;
+        }
+
+        /**
+         * @return the record type of the line.
+         */
+        public String getRecordType() {
+            return recordType;
+        }
+
+        /**
+         * @return the error.
+         */
+        public ParseError getError() {
+            return error;
+        }
+
+        /**
+         * @return the line.
+         */
+        public String getLine() {
+            return line;
+        }
+
+        @Override
+        public String toString(){
+            return("line "+lineNro+" ("+dataset+", "+recordType+"): "+error.getDescription()+"\n"+line);
+        }
+    }
+
+    /**
+     * Add an error.
+     * @param lineNro line number of the offending line.
+     * @param dataset the dataset of the line, i.e. its NUCID and DSID.
+     * @param recordType the record type of the line.
+     * @param error the error.
+     * @param line the line.
+     */
+    public void add(int lineNro, String dataset, String recordType, ParseError error, String line){
+        count++;
+        increment(byError, error, 1);
+        increment(byDataset, dataset, 1);
+        increment(byRecordType, recordType, 1);
+        if(samples.size() < MAX_SAMPLES)samples.add(new Sample(lineNro, dataset, recordType, error, line.replace("\n", "")));
+    }
+
+    /**
+     * Add the errors of another collection to this collection, e.g. when the
+     * data has been parsed in parts. The errors should be added in data order.
+     * @param errors the errors to add.
+     */
+    public void addAll(ParseErrors errors){
+        count += errors.count;
+        for(Map.Entry<ParseError, Integer> e : errors.byError.entrySet())increment(byError, e.getKey(), e.getValue());
+        for(Map.Entry<String, Integer> e : errors.byDataset.entrySet())increment(byDataset, e.getKey(), e.getValue());
+        for(Map.Entry<String, Integer> e : errors.byRecordType.entrySet())increment(byRecordType, e.getKey(), e.getValue());
+        for(Sample s : errors.samples){
+            if(samples.size() >= MAX_SAMPLES)break;
+            samples.add(s);
+        }
+    }
+
+    /**
+     * Increment a count in a given map.
+     * @param <K> the key type.
+     * @param map the map.
+     * @param key the key of the count.
+     * @param n the increment.
+     */
+    private static <K> void increment(Map<K, Integer> map, K key, int n){
+        Integer c = map.get(key);
+        map.put(key, (c == null) ? n : c + n);
+    }
+
+    /**
+     * @return the total number of errors.
+     */
+    public int getCount(){
+        return(count);
+    }
+
+    /**
+     * @return the number of errors by error.
+     */
+    public Map<ParseError, Integer> getCountsByError(){
+        return(Collections.unmodifiableMap(byError));
+    }
+
+    /**
+     * @return the number of errors by dataset (NUCID and DSID).
+     */
+    public Map<String, Integer> getCountsByDataset(){
+        return(Collections.unmodifiableMap(byDataset));
+    }
+
+    /**
+     * @return the number of errors by record type.
+     */
+    public Map<String, Integer> getCountsByRecordType(){
+        return(Collections.unmodifiableMap(byRecordType));
+    }
+
+    /**
+     * @return the sample lines, at most {@linkplain #MAX_SAMPLES}.
+     */
+    public List<Sample> getSamples(){
+        return(Collections.unmodifiableList(samples));
+    }
+
+    /**
+     * Get a summary of the errors, listing the counts by error and by record
+     * type.
+     * @return the summary.
+     */
+    public String getSummary(){
+        StringBuilder b = new StringBuilder();
+        b.append(count).append(" lines could not be parsed in ").append(byDataset.size()).append(" datasets.");
+        for(Map.Entry<ParseError, Integer> e : byError.entrySet())
+            b.append("\n\t").append(e.getKey().getDescription()).append(": ").append(e.getValue());
+        for(Map.Entry<String, Integer> e : byRecordType.entrySet())
+            b.append("\n\t").append(e.getKey()).append(": ").append(e.getValue());
+        return(b.toString());
+    }
+}
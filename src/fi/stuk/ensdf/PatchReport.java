@@ -0,0 +1,96 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PatchReport summarizes patching with several files, see
+ * {@linkplain ENSDFParser#patch(java.util.List, java.lang.String, int) }:
+ * the number of files and datasets patched with, the files that could not be
+ * read, and the lines of the patch files that could not be parsed.
+ */
+public class PatchReport {
+    /** Number of files patched with. */
+    private int files = 0;
+
+    /** Number of datasets patched with. */
+    private int datasets = 0;
+
+    /** The files that could not be read, with the reasons, in patching order. */
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    /** The errors found while parsing the patch files. */
+    private final ParseErrors errors = new ParseErrors();
+
+    /**
+     * Count a file patched with.
+     * @param nDatasets the number of datasets in the file.
+     * @param fileErrors the errors found while parsing the file.
+     */
+    void addFile(int nDatasets, ParseErrors fileErrors){
+        files++;
+        datasets += nDatasets;
+        errors.addAll(fileErrors);
+    }
+
+    /**
+     * Add a file that could not be read.
+     * @param name the name of the file.
+     * @param reason the reason.
+     */
+    void addFailure(String name, String reason){
+        failures.put(name, reason);
+    }
+
+    /**
+     * @return the number of files patched with.
+     */
+    public int getFileCount(){
+        return(files);
+    }
+
+    /**
+     * @return the number of datasets patched with.
+     */
+    public int getDatasetCount(){
+        return(datasets);
+    }
+
+    /**
+     * Get the files that could not be read. Their datasets were not used.
+     * @return the reasons by file name, in patching order.
+     */
+    public Map<String, String> getFailures(){
+        return(Collections.unmodifiableMap(failures));
+    }
+
+    /**
+     * Get the errors found while parsing the patch files. The errors are also
+     * included in {@linkplain ENSDFParser#getErrors() }.
+     * @return the errors.
+     */
+    public ParseErrors getErrors(){
+        return(errors);
+    }
+
+    /**
+     * Get a summary of patching, listing the files that could not be read.
+     * @return the summary.
+     */
+    public String getSummary(){
+        StringBuilder b = new StringBuilder();
+        b.append("Patched with ").append(datasets).append(" datasets from ").append(files).append(" files.");
+        if(errors.getCount() > 0)b.append(" ").append(errors.getCount()).append(" lines could not be parsed.");
+        if(!failures.isEmpty())b.append("\n").append(failures.size()).append(" files could not be read:");
+        for(Map.Entry<String, String> e : failures.entrySet())
+            b.append("\n\t").append(e.getKey()).append(": ").append(e.getValue());
+        return(b.toString());
+    }
+}
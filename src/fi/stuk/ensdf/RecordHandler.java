@@ -0,0 +1,58 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.Record;
+
+/**
+ * RecordHandler handles one type of records for a {@linkplain Dataset}: it
+ * creates the records of the type and adds them to the dataset.
+ * <p>
+ * The handlers are looked up by the record type character codes of a line
+ * when creating records, and by the record class when adding them, see
+ * {@linkplain Dataset#setRecordHandler(char, char, java.lang.Class, fi.stuk.ensdf.RecordHandler) }.
+ * @see Dataset#createRecord(char, char, java.lang.String)
+ * @see Dataset#addRecord(fi.stuk.ensdf.record.Record)
+ * @see Dataset#continueRecord(fi.stuk.ensdf.record.Record)
+ */
+public interface RecordHandler {
+    /**
+     * Create a record for a line.
+     * @param ds the dataset the line belongs to.
+     * @param code the first record type character code of the line.
+     * @param line the line, or <code>null</code> if this handler does not
+     * need it (see {@linkplain #needsLine() }).
+     * @return the record.
+     */
+    Record create(Dataset ds, char code, String line);
+
+    /**
+     * See if {@linkplain #create(fi.stuk.ensdf.Dataset, char, java.lang.String) }
+     * needs the line. If not, the line is not created as a string when
+     * records are parsed lazily from a file.
+     * @return <code>true</code> if the line is needed (the default),
+     * <code>false</code> otherwise.
+     */
+    default boolean needsLine(){
+        return(true);
+    }
+
+    /**
+     * Add a parsed record to a dataset.
+     * @param ds the dataset.
+     * @param r the record.
+     */
+    void add(Dataset ds, Record r);
+
+    /**
+     * Continue the previously added record of a dataset with a continuation
+     * record.
+     * @param ds the dataset.
+     * @param r the continuation record.
+     */
+    void addContinuation(Dataset ds, Record r);
+}
@@ -0,0 +1,252 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf;
+
+import fi.stuk.ensdf.record.Record;
+import fi.stuk.ensdf.type.Uncertainty;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * RecordTable keeps the records of one type of a dataset as off-heap columns,
+ * one column per numeric field, allocated from a {@linkplain MemoryArena}.
+ * A column holds the values of a field for all records one after another, so
+ * that e.g. summing the intensities of the gamma records of a dataset reads
+ * consecutive memory without following references to record objects.
+ * <p>
+ * A numeric column holds <code>NaN</code> for an absent value. The state of
+ * the uncertainties other than their values (see
+ * {@linkplain Uncertainty#pack(fi.stuk.ensdf.type.Uncertainty) }) is packed in
+ * a state column, and text fields are kept in on-heap columns.
+ * <p>
+ * The records are read through a {@linkplain View}: a view is a record
+ * object, so it implements the getters of its record type, but instead of
+ * holding fields of its own it reads the row it is moved to. One view can be
+ * moved over all the rows of a table, for example:
+ * <pre>
+ * GammaTable.View g = table.view();
+ * for(int i = 0;i &lt; table.size();i++){
+ *     g.moveTo(i);
+ *     if(g.getRI() != null)sum += g.getRI();
+ * }
+ * </pre>
+ * Views are read-only: setting the fields of a view does not change the table.
+ * @param <R> the record type.
+ * @see Dataset#compact(fi.stuk.ensdf.MemoryArena)
+ */
+public abstract class RecordTable<R extends Record> {
+    /** The dataset of the records. */
+    final Dataset ds;
+
+    /** Number of rows. */
+    final int size;
+
+    /** Number of numeric columns. */
+    final int columns;
+
+    /** The numeric columns one after another, followed by the state column
+     (a long per row) and the line number column (an int per row). */
+    final ByteBuffer data;
+
+    /** The text columns. */
+    final String[][] text;
+
+    /**
+     * View is a record reading its fields from a row of a table.
+     */
+    public interface View {
+        /**
+         * Move this view to a given row.
+         * @param row the row.
+         */
+        void moveTo(int row);
+
+        /**
+         * Get the row of this view.
+         * @return the row.
+         */
+        int getRow();
+    }
+
+    /**
+     * Create a table of given records.
+     * @param ds the dataset of the records.
+     * @param arena the arena to allocate the columns from.
+     * @param records the records.
+     * @param columns the number of numeric columns.
+     * @param textColumns the number of text columns.
+     */
+    RecordTable(Dataset ds, MemoryArena arena, List<? extends R> records, int columns, int textColumns){
+        this.ds = ds;
+        this.size = records.size();
+        this.columns = columns;
+        this.data = arena.allocate(size * (columns * 8 + 8 + 4));
+        this.text = new String[textColumns][size];
+        for(int i = 0;i < size;i++){
+            R r = records.get(i);
+            data.putInt(lineOffset(i), r.lineNro);
+            store(r, i);
+        }
+    }
+
+    /**
+     * Store the fields of a record in a row of this table.
+     * @param r the record.
+     * @param row the row.
+     */
+    abstract void store(R r, int row);
+
+    /**
+     * Create a view of this table, positioned at the first row.
+     * @return the view.
+     */
+    public abstract R view();
+
+    /**
+     * Get the dataset of the records.
+     * @return the dataset.
+     */
+    public Dataset getDataset(){
+        return(ds);
+    }
+
+    /**
+     * Get the number of rows.
+     * @return the number of rows.
+     */
+    public int size(){
+        return(size);
+    }
+
+    /**
+     * Get the value of a numeric column.
+     * @param column the column.
+     * @param row the row.
+     * @return the value, or <code>NaN</code> if it is absent.
+     */
+    public double getDouble(int column, int row){
+        return(data.getDouble((column * size + row) << 3));
+    }
+
+    /**
+     * Sum the values of a numeric column, skipping absent values.
+     * @param column the column.
+     * @return the sum.
+     */
+    public double sum(int column){
+        double s = 0;
+        int a = column * size << 3;
+        for(int i = 0;i < size;i++){
+            double d = data.getDouble(a + (i << 3));
+            if(!Double.isNaN(d))s += d;
+        }
+        return(s);
+    }
+
+    /**
+     * Get the line number of a record.
+     * @param row the row of the record.
+     * @return the line number.
+     */
+    public int getLineNro(int row){
+        return(data.getInt(lineOffset(row)));
+    }
+
+    /**
+     * Get the value of a numeric column.
+     * @param column the column.
+     * @param row the row.
+     * @return the value, or <code>null</code> if it is absent.
+     */
+    Double getValue(int column, int row){
+        double d = getDouble(column, row);
+        return(Double.isNaN(d) ? null : d);
+    }
+
+    /**
+     * Get an uncertainty.
+     * @param column the column of the value of the uncertainty.
+     * @param slot the slot of the uncertainty in the state column.
+     * @param row the row.
+     * @return the uncertainty, or <code>null</code> if it is absent.
+     */
+    Uncertainty getUncertainty(int column, int slot, int row){
+        return(Uncertainty.unpack(getState(row, slot * Uncertainty.PACKED_BITS, Uncertainty.PACKED_MASK), getDouble(column, row)));
+    }
+
+    /**
+     * Get a text value.
+     * @param column the text column.
+     * @param row the row.
+     * @return the value.
+     */
+    String getText(int column, int row){
+        return(text[column][row]);
+    }
+
+    /**
+     * Get packed state from the state column.
+     * @param row the row.
+     * @param shift the position of the state.
+     * @param mask the mask of the state.
+     * @return the state.
+     */
+    int getState(int row, int shift, int mask){
+        return((int)(data.getLong(stateOffset(row)) >>> shift) & mask);
+    }
+
+    /**
+     * Set a value of a numeric column.
+     * @param column the column.
+     * @param row the row.
+     * @param value the value, or <code>null</code> if it is absent.
+     */
+    void put(int column, int row, Double value){
+        data.putDouble((column * size + row) << 3, (value == null) ? Double.NaN : value);
+    }
+
+    /**
+     * Set an uncertainty.
+     * @param column the column of the value of the uncertainty.
+     * @param slot the slot of the uncertainty in the state column.
+     * @param row the row.
+     * @param u the uncertainty, or <code>null</code>.
+     */
+    void put(int column, int slot, int row, Uncertainty u){
+        data.putDouble((column * size + row) << 3, (u == null) ? 0 : u.getValue());
+        putState(row, slot * Uncertainty.PACKED_BITS, Uncertainty.pack(u));
+    }
+
+    /**
+     * Add packed state to the state column.
+     * @param row the row.
+     * @param shift the position of the state.
+     * @param state the state.
+     */
+    void putState(int row, int shift, int state){
+        int p = stateOffset(row);
+        data.putLong(p, data.getLong(p) | ((long)state << shift));
+    }
+
+    /**
+     * Get the position of the state of a row.
+     * @param row the row.
+     * @return the position.
+     */
+    private int stateOffset(int row){
+        return((columns * size + row) << 3);
+    }
+
+    /**
+     * Get the position of the line number of a row.
+     * @param row the row.
+     * @return the position.
+     */
+    private int lineOffset(int row){
+        return(((columns + 1) * size << 3) + (row << 2));
+    }
+}
@@ -39,46 +39,52 @@ Letter 'S' denotes an expected or predicted
 public class AlphaRecord extends EmissionRecord{    
     String NUCID;    
     String A;
-    Double E;
-    Uncertainty DE;
-    Double IA;
-    Uncertainty DIA;
-    Double HF;
-    Uncertainty DHF;
+    double E;
+    double DE;
+    double IA;
+    double DIA;
+    double HF;
+    double DHF;
     String C;
     String Q;
+    
+    /** Bits of the numeric fields that have a value. */
+    private static final long F_E = 1, F_IA = 1 << 1, F_HF = 1 << 2;
+    
+    /** Slots of the uncertainties. */
+    private static final int U_DE = 0, U_DIA = 1, U_DHF = 2;
 
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         A = field(8);
-        E = dfield(10,19);
-        DE = ufield(20,21, E);
-        IA = dfield(22,29);
-        DIA = ufield(30,31, IA);
-        HF = dfield(32,39);
-        DHF = ufield(40,41, HF);
+        E = dvalue(F_E, 10,19);
+        DE = uvalue(U_DE, 20,21,10,19);
+        IA = dvalue(F_IA, 22,29);
+        DIA = uvalue(U_DIA, 30,31,22,29);
+        HF = dvalue(F_HF, 32,39);
+        DHF = uvalue(U_DHF, 40,41,32,39);
         C = field(77);
         Q = field(80);
     }
 
     @Override
     public Double getE() {
-        return(E);
+        return(value(F_E, E));
     }
 
     @Override
     public Double getRI() {
-        return(IA);
+        return(value(F_IA, IA));
     }
 
     @Override
     public Uncertainty getDE() {
-        return(DE);
+        return(uncertainty(U_DE, DE));
     }
 
     @Override
     public Uncertainty getDRI() {
-        return(DIA);
+        return(uncertainty(U_DIA, DIA));
     }
 }
@@ -47,73 +47,86 @@ transition<p>
 public class BetaRecord extends EmissionRecord{
     String NUCID;
     String B;
-    Double E;
-    Uncertainty DE;
-    Double IB;
-    Uncertainty DIB;
+    double E;
+    double DE;
+    double IB;
+    double DIB;
     String LOGFT;
     String DFT;
     String C;
     String UN;
     String Q;
-    Double EAV;
+    double EAV;
+    
+    /** Bits of the numeric fields that have a value. */
+    private static final long F_E = 1, F_IB = 1 << 1, F_EAV = 1 << 2;
+    
+    /** Slots of the uncertainties. */
+    private static final int U_DE = 0, U_DIB = 1;
     
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         B = field(8);
-        E = dfield(10,19);
-        DE = ufield(20,21,E);
-        IB = dfield(22,29);
-        DIB = ufield(30,31,IB);
+        E = dvalue(F_E, 10,19);
+        DE = uvalue(U_DE, 20,21,10,19);
+        IB = dvalue(F_IB, 22,29);
+        DIB = uvalue(U_DIB, 30,31,22,29);
         LOGFT = field(42,49);
         DFT = field(50,55);
         C = field(77);
-        UN = field(78,79);
+        UN = symbol(78,79);
         Q = field(80);
     }
 
     @Override
     public Double getE() {
-        if(E == null && EAV != null)return(EAV);
-        return(E);
+        if(!isPresent(F_E) && isPresent(F_EAV))return(EAV);
+        return(value(F_E, E));
     }
 
     @Override
     public Double getRI() {
-        return(IB);
+        return(value(F_IB, IB));
     }
 
     @Override
     public Uncertainty getDE() {
-        return(DE);
+        return(uncertainty(U_DE, DE));
     }
 
     @Override
     public Uncertainty getDRI() {
-        return(DIB);
+        return(uncertainty(U_DIB, DIB));
     }
     
-    public void parseContinuation(){
-        String[] lines = content.split("\n");
-        if(lines.length > 1){
-            for(int j = 1;j < lines.length;j++){
-                String line = lines[j].substring(8);
-                line = line.replaceAll("=", "= ");
-                    line = line.trim();
-                String[] tok = line.split("\\$");
-                for(int i = 0;i < tok.length;i++){
-                    if(tok[i].startsWith("EAV="))parseAvgEnergy(tok[i]);
-                }
-            }
+    @Override
+    protected void parseContinuation(Record r){
+        String line = r.getContent().substring(8);
+        line = line.replaceAll("=", "= ");
+        line = line.trim();
+        String[] tok = line.split("\\$");
+        for(int i = 0;i < tok.length;i++){
+            if(tok[i].startsWith("EAV="))parseAvgEnergy(r, tok[i]);
         }
     }
     
-    private void parseAvgEnergy(String tok){
+    /**
+     * Parse the average energy from a continuation record.
+     * @param r the continuation record, which gets the error if the value is
+     * malformed.
+     * @param tok the quantity, e.g. <code>EAV= 123.4 5</code>.
+     */
+    private void parseAvgEnergy(Record r, String tok){
         String[] valueAndUnc = tok.split("=");        
+        if(valueAndUnc.length < 2){
+            r.setError(ParseError.NUMBER);
+            return;
+        }
         String value[] = valueAndUnc[1].trim().split("\\s+");
         if(tok.charAt(0) == 'E'){
-            EAV = Double.parseDouble(value[0]);
+            Double v = parseValue(r, value[0]);
+            if(v != null)EAV = store(F_EAV, v);
             
         }        
     }
@@ -61,18 +61,46 @@ public class CommentRecord extends Record{
         return(code);
     }
 
+    /** Bits of the lazily decoded fields. */
+    private static final long F_NUCID = 1, F_RTYPE = 1 << 1, F_PSYM = 1 << 2, F_CTEXT = 1 << 3;
+
+    /**
+     * All fields of a comment record are decoded lazily by their getters.
+     */
+    @Override
     public void parse(){
-        NUCID = field(1,5);
-        RTYPE = field(8);
-        PSYM = field(9);
-        CTEXT = field(10,80);
+    }
+
+    @Override
+    public void decodeAll(){
+        getNUCID();
+        getRTYPE();
+        getPSYM();
+        getCTEXT();
+    }
+
+    public String getNUCID(){
+        if(needsDecoding(F_NUCID))NUCID = symbol(1,5);
+        return(NUCID);
+    }
+
+    public String getRTYPE(){
+        if(needsDecoding(F_RTYPE))RTYPE = field(8);
+        return(RTYPE);
+    }
+
+    public String getPSYM(){
+        if(needsDecoding(F_PSYM))PSYM = field(9);
+        return(PSYM);
     }
 
     public String getCTEXT(){
+        if(needsDecoding(F_CTEXT))CTEXT = field(10,80);
         return(CTEXT);
     }
 
     public void setCTEXT(String s){
         this.CTEXT = s;
+        setDecoded(F_CTEXT);
     }
 }
@@ -42,8 +42,8 @@ public class CrossReferenceRecord extends Record{
 
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         DSSYM = field(9);
-        DSID = field(10,39);
+        DSID = symbol(10,39);
     }
 }
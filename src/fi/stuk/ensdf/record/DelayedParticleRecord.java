@@ -65,7 +65,7 @@ public class DelayedParticleRecord extends Record{
 
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         D = field(8);
         Particle = field(9);
         E = field(10,19);
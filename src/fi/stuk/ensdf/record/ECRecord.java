@@ -52,12 +52,12 @@ record).
 public class ECRecord extends EmissionRecord{
     String NUCID;
     String _E;
-    Double E;
-    Uncertainty DE;
-    protected Double IB;
-    protected Uncertainty DIB;
-    protected Double IE;
-    Uncertainty DIE;
+    double E;
+    double DE;
+    protected double IB;
+    protected double DIB;
+    protected double IE;
+    double DIE;
     String LOGFT;
     String DFT;
     String TI;
@@ -65,26 +65,33 @@ public class ECRecord extends EmissionRecord{
     String C;
     String UN;
     String Q;
-    protected Double CK = null;
-    protected Double CL = null;
-    protected Double CM = null;
+    protected double CK;
+    protected double CL;
+    protected double CM;
+    
+    /** Bits of the numeric fields that have a value. */
+    private static final long F_E = 1, F_IB = 1 << 1, F_IE = 1 << 2,
+            F_CK = 1 << 3, F_CL = 1 << 4, F_CM = 1 << 5;
+    
+    /** Slots of the uncertainties. */
+    private static final int U_DE = 0, U_DIB = 1, U_DIE = 2;
     
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         _E = field(8);
-        E = dfield(10,19);
-        DE = ufield(20,21,E);
-        IB = dfield(22,29);
-        DIB = ufield(30,31,IB);
-        IE = dfield(32,39);
-        DIE = ufield(40,41,IE);
+        E = dvalue(F_E, 10,19);
+        DE = uvalue(U_DE, 20,21,10,19);
+        IB = dvalue(F_IB, 22,29);
+        DIB = uvalue(U_DIB, 30,31,22,29);
+        IE = dvalue(F_IE, 32,39);
+        DIE = uvalue(U_DIE, 40,41,32,39);
         LOGFT = field(42,49);
         DFT = field(50,55);
         TI = field(65,74);
         DTI = field(75,76);
         C = field(77);
-        UN = field(78,79);
+        UN = symbol(78,79);
         Q = field(80);
     }
 
@@ -101,10 +108,9 @@ public class ECRecord extends EmissionRecord{
     public Double getRI() {
         //return(IB);
         //System.out.println("Get RI changed to return IE instead of IB");
-        if(IB != null && IE != null)return(IB+IE);
-        else if (IB == null)return(IE);
-        else if(IE == null)return(IB);
-        else return(null);
+        if(isPresent(F_IB) && isPresent(F_IE))return(IB+IE);
+        else if (!isPresent(F_IB))return(value(F_IE, IE));
+        else return(IB);
     }
 
     @Override
@@ -114,75 +120,83 @@ public class ECRecord extends EmissionRecord{
 
     @Override
     public Uncertainty getDRI() {
-        return(DIB);
+        return(uncertainty(U_DIB, DIB));
     }
     
-    public void parseContinuation(){
-        String[] lines = content.split("\n");
-        if(lines.length > 1){
-            for(int j = 1;j < lines.length;j++){
-                String line = lines[j].substring(8);
-                line = line.replaceAll("=", "= ");
-                    line = line.trim();
-                String[] tok = line.split("\\$");
-                for(int i = 0;i < tok.length;i++){
-                    if(tok[i].startsWith("CK=") || tok[i].startsWith("CL=") ||
-                            tok[i].startsWith("CM="))parseCoeff(tok[i]);
-                }
-            }
+    @Override
+    protected void parseContinuation(Record r){
+        String line = r.getContent().substring(8);
+        line = line.replaceAll("=", "= ");
+        line = line.trim();
+        String[] tok = line.split("\\$");
+        for(int i = 0;i < tok.length;i++){
+            if(tok[i].startsWith("CK=") || tok[i].startsWith("CL=") ||
+                    tok[i].startsWith("CM="))parseCoeff(r, tok[i]);
         }
     }
 
-    private void parseCoeff(String coeff){        
+    /**
+     * Parse a capture fraction from a continuation record.
+     * @param r the continuation record, which gets the error if the value is
+     * malformed.
+     * @param coeff the quantity, e.g. <code>CK= 0.8 1</code>.
+     */
+    private void parseCoeff(Record r, String coeff){        
         String[] valueAndUnc = coeff.split("=");        
+        if(valueAndUnc.length < 2){
+            r.setError(ParseError.NUMBER);
+            return;
+        }
         String value[] = valueAndUnc[1].trim().split("\\s+");
+        Double v = parseValue(r, value[0]);
+        if(v == null)return;
         if(coeff.charAt(1) == 'K'){
-            CK = Double.parseDouble(value[0]);
+            CK = store(F_CK, v);
             
         }
-        else if(coeff.charAt(1) == 'L')CL = Double.parseDouble(value[0]);
-        else if(coeff.charAt(1) == 'M')CM = Double.parseDouble(value[0]);
+        else if(coeff.charAt(1) == 'L')CL = store(F_CL, v);
+        else if(coeff.charAt(1) == 'M')CM = store(F_CM, v);
     }
 
     /**
      * @return the CK
      */
     public Double getCK() {
-        return CK;
+        return value(F_CK, CK);
     }
 
     /**
      * @return the CL
      */
     public Double getCL() {
-        return CL;
+        return value(F_CL, CL);
     }
 
     /**
      * @return the CM
      */
     public Double getCM() {
-        return CM;
+        return value(F_CM, CM);
     }
 
     /**
      * @return the IE
      */
     public Double getIE() {
-        return IE;
+        return value(F_IE, IE);
     }
 
     /**
      * @return the DIB
      */
     public Uncertainty getDIB() {
-        return DIB;
+        return uncertainty(U_DIB, DIB);
     }
 
     /**
      * @return the IB
      */
     public Double getIB() {
-        return IB;
+        return value(F_IB, IB);
     }
 }
@@ -20,7 +20,10 @@ public class EndRecord extends Record{
      * @return <code> true</code> if it is, <code>false</code> otherwise.
      */
     public boolean isEndRecord(){
-        String tc = this.content.trim();
-        return(tc.isEmpty());
+        int l = (source != null) ? length : content.length();
+        for(int i = 0;i < l;i++){
+            if(charAt(i) > ' ')return(false);
+        }
+        return(true);
     }    
 }
@@ -58,61 +58,81 @@ coincidence.
 public class GammaRecord extends EmissionRecord{
     protected String NUCID;
     protected String G;
-    protected Double E;
-    protected Uncertainty DE;
-    protected Double RI;
-    protected Uncertainty DRI;
+    protected double E;
+    protected double DE;
+    protected double RI;
+    protected double DRI;
     protected String M;
-    protected Double MR;
-    protected Uncertainty DMR;
-    protected Double CC;
-    protected Uncertainty DCC;
-    protected Double TI;
-    protected Uncertainty DTI;
+    protected double MR;
+    protected double DMR;
+    protected double CC;
+    protected double DCC;
+    protected double TI;
+    protected double DTI;
     protected String C;
     protected String COIN;
     protected String Q;
     /** K shell internal conversion coefficient. */
-    protected Double Kc;
-    /** K shell internal conversion coefficient uncertainty. */
-    protected Double dKc;
+    protected double Kc;
     /** L shell internal conversion coefficient. */
-    protected Double Lc;
-    /** L shell internal conversion coefficient uncertainty. */
-    protected Double dLc;
+    protected double Lc;
     /** M shell internal conversion coefficient. */
-    protected Double Mc;
-    /** M shell internal conversion coefficient uncertainty. */
-    protected Double dMc;
+    protected double Mc;
     
     
+    /** Bits of the lazily decoded fields and of the numeric fields that
+     have a value. */
+    private static final long F_NUCID = 1, F_G = 1 << 1, F_M = 1 << 2, F_MR = 1 << 3,
+            F_DMR = 1 << 4, F_CC = 1 << 5, F_DCC = 1 << 6, F_TI = 1 << 7,
+            F_DTI = 1 << 8, F_C = 1 << 9, F_COIN = 1 << 10, F_Q = 1 << 11,
+            F_E = 1 << 12, F_RI = 1 << 13, F_Kc = 1 << 14, F_Lc = 1 << 15,
+            F_Mc = 1 << 16;
+    
+    /** Bits of all lazily decoded fields, see {@linkplain #decodeAll() }. */
+    private static final long F_LAZY = F_NUCID | F_G | F_M | F_MR | F_DMR | F_CC
+            | F_DCC | F_TI | F_DTI | F_C | F_COIN | F_Q;
+    
+    /** Slots of the uncertainties. */
+    private static final int U_DE = 0, U_DRI = 1, U_DMR = 2, U_DCC = 3, U_DTI = 4;
+    
+    /**
+     * Parse the energy and intensity of this record. The rest of the fields
+     * are decoded lazily by their getters.
+     */
     @Override
     public void parse(){
-        NUCID = field(1,5);
-        G = field(8);
-        E = dfield(10,19);     
-        DE = ufield(20,21,E);
-        RI = dfield(22,29);
+        E = dvalue(F_E, 10,19);     
+        DE = uvalue(U_DE, 20,21,10,19);
+        RI = dvalue(F_RI, 22,29);
+        DRI = uvalue(U_DRI, 30,31,22,29);
         NormalizationRecord r = ds.getNormalizationRecord();
-        if(r != null && RI != null)r.normalize(this);
-        if(RI == null)RI = 0d;
-        DRI = ufield(30,31,RI);
-        M = field(32,41);
-        MR = dfield(42,49);
-        DMR = ufield(50,55,MR);
-        CC = dfield(56,62);
-        DCC = ufield(63,64,CC);
-        TI = dfield(65,74);
-        DTI = ufield(75,76,TI);
-        C = field(77);
-        COIN = field(78);
-        Q = field(80);               
+        if(r != null && isPresent(F_RI))r.normalize(this);
+        if(!isPresent(F_RI))RI = store(F_RI, 0d);
+    }
+
+    @Override
+    public void decodeAll(){
+        getNUCID();
+        getG();
+        getM();
+        getMR();
+        getDMR();
+        getCC();
+        getDCC();
+        getTI();
+        getDTI();
+        getC();
+        getCOIN();
+        getQ();
+        //A field left out here would let a malformed value pass in eager mode
+        assert isDecoded(F_LAZY) : "Not all lazily decoded fields were decoded";
     }
 
     /**
      * @return the NUCID
      */
     public String getNUCID() {
+        if(needsDecoding(F_NUCID))NUCID = symbol(1,5);
         return NUCID;
     }
 
@@ -121,12 +141,14 @@ public class GammaRecord extends EmissionRecord{
      */
     public void setNUCID(String NUCID) {
         this.NUCID = NUCID;
+        setDecoded(F_NUCID);
     }
 
     /**
      * @return the G
      */
     public String getG() {
+        if(needsDecoding(F_G))G = field(8);
         return G;
     }
 
@@ -135,68 +157,70 @@ public class GammaRecord extends EmissionRecord{
      */
     public void setG(String G) {
         this.G = G;
+        setDecoded(F_G);
     }
 
     /**
      * @return the E
      */
     public Double getE() {
-        return E;
+        return value(F_E, E);
     }
 
     /**
      * @param E the E to set
      */
     public void setE(Double E) {
-        this.E = E;
+        this.E = store(F_E, E);
     }
 
     /**
      * @return the DE
      */
     public Uncertainty getDE() {
-        return DE;
+        return uncertainty(U_DE, DE);
     }
 
     /**
      * @param DE the DE to set
      */
     public void setDE(Uncertainty DE) {
-        this.DE = DE;
+        this.DE = storeUncertainty(U_DE, DE);
     }
 
     /**
      * @return the RI
      */
     public Double getRI() {
-        return RI;
+        return value(F_RI, RI);
     }
 
     /**
      * @param RI the RI to set
      */
     public void setRI(Double RI) {
-        this.RI = RI;
+        this.RI = store(F_RI, RI);
     }
 
     /**
      * @return the DRI
      */
     public Uncertainty getDRI() {
-        return DRI;
+        return uncertainty(U_DRI, DRI);
     }
 
     /**
      * @param DRI the DRI to set
      */
     public void setDRI(Uncertainty DRI) {
-        this.DRI = DRI;
+        this.DRI = storeUncertainty(U_DRI, DRI);
     }
 
     /**
      * @return the M
      */
     public String getM() {
+        if(needsDecoding(F_M))M = symbol(32,41);
         return M;
     }
 
@@ -205,96 +229,110 @@ public class GammaRecord extends EmissionRecord{
      */
     public void setM(String M) {
         this.M = M;
+        setDecoded(F_M);
     }
 
     /**
      * @return the MR
      */
     public Double getMR() {
-        return MR;
+        if(needsDecoding(F_MR))MR = dvalue(F_MR, 42,49);
+        return value(F_MR, MR);
     }
 
     /**
      * @param MR the MR to set
      */
     public void setMR(Double MR) {
-        this.MR = MR;
+        this.MR = store(F_MR, MR);
+        setDecoded(F_MR);
     }
 
     /**
      * @return the DMR
      */
     public Uncertainty getDMR() {
-        return DMR;
+        if(needsDecoding(F_DMR))DMR = uvalue(U_DMR, 50,55,42,49);
+        return uncertainty(U_DMR, DMR);
     }
 
     /**
      * @param DMR the DMR to set
      */
     public void setDMR(Uncertainty DMR) {
-        this.DMR = DMR;
+        this.DMR = storeUncertainty(U_DMR, DMR);
+        setDecoded(F_DMR);
     }
 
     /**
      * @return the CC
      */
     public Double getCC() {
-        return CC;
+        if(needsDecoding(F_CC))CC = dvalue(F_CC, 56,62);
+        return value(F_CC, CC);
     }
 
     /**
      * @param CC the CC to set
      */
     public void setCC(Double CC) {
-        this.CC = CC;
+        this.CC = store(F_CC, CC);
+        setDecoded(F_CC);
     }
 
     /**
      * @return the DCC
      */
     public Uncertainty getDCC() {
-        return DCC;
+        if(needsDecoding(F_DCC))DCC = uvalue(U_DCC, 63,64,56,62);
+        return uncertainty(U_DCC, DCC);
     }
 
     /**
      * @param DCC the DCC to set
      */
     public void setDCC(Uncertainty DCC) {
-        this.DCC = DCC;
+        this.DCC = storeUncertainty(U_DCC, DCC);
+        setDecoded(F_DCC);
     }
 
     /**
      * @return the TI
      */
     public Double getTI() {
-        return TI;
+        if(needsDecoding(F_TI))TI = dvalue(F_TI, 65,74);
+        return value(F_TI, TI);
     }
 
     /**
      * @param TI the TI to set
      */
     public void setTI(Double TI) {
-        this.TI = TI;
+        this.TI = store(F_TI, TI);
+        setDecoded(F_TI);
     }
 
     /**
      * @return the DTI
      */
     public Uncertainty getDTI() {
-        return DTI;
+        if(needsDecoding(F_DTI))DTI = uvalue(U_DTI, 75,76,65,74);
+        return uncertainty(U_DTI, DTI);
     }
 
     /**
      * @param DTI the DTI to set
      */
     public void setDTI(Uncertainty DTI) {
-        this.DTI = DTI;
+        this.DTI = storeUncertainty(U_DTI, DTI);
+        setDecoded(F_DTI);
     }
 
     /**
      * @return the C
      */
     public String getC() {
+        if(needsDecoding(F_C))C = field(77);
         return C;
     }
 
@@ -303,12 +341,14 @@ public class GammaRecord extends EmissionRecord{
      */
     public void setC(String C) {
         this.C = C;
+        setDecoded(F_C);
     }
 
     /**
      * @return the COIN
      */
     public String getCOIN() {
+        if(needsDecoding(F_COIN))COIN = field(78);
         return COIN;
     }
 
@@ -317,12 +357,14 @@ public class GammaRecord extends EmissionRecord{
      */
     public void setCOIN(String COIN) {
         this.COIN = COIN;
+        setDecoded(F_COIN);
     }
 
     /**
      * @return the Q
      */
     public String getQ() {
+        if(needsDecoding(F_Q))Q = field(80);
         return Q;
     }
 
@@ -331,52 +373,60 @@ public class GammaRecord extends EmissionRecord{
      */
     public void setQ(String Q) {
         this.Q = Q;
+        setDecoded(F_Q);
     }
     
-    public void parseContinuation(){
-        String[] lines = content.split("\n");
-        if(lines.length > 1){
-            for(int j = 1;j < lines.length;j++){
-                String line = lines[j].substring(8);
-                line = line.replaceAll("=", "= ");
-                    line = line.trim();
-                String[] tok = line.split("\\$");
-                for(int i = 0;i < tok.length;i++){
-                    if(tok[i].startsWith("KC=") || tok[i].startsWith("LC=") ||
-                            tok[i].startsWith("MC=") ||
-                            tok[i].startsWith("EKC=") || tok[i].startsWith("ELC=") ||
-                            tok[i].startsWith("EMC=")
-                            )parseConvCoeff(tok[i]);
-                }
-            }
+    @Override
+    protected void parseContinuation(Record r){
+        String line = r.getContent().substring(8);
+        line = line.replaceAll("=", "= ");
+        line = line.trim();
+        String[] tok = line.split("\\$");
+        for(int i = 0;i < tok.length;i++){
+            if(tok[i].startsWith("KC=") || tok[i].startsWith("LC=") ||
+                    tok[i].startsWith("MC=") ||
+                    tok[i].startsWith("EKC=") || tok[i].startsWith("ELC=") ||
+                    tok[i].startsWith("EMC=")
+                    )parseConvCoeff(r, tok[i]);
         }
     }
     
-    private void parseConvCoeff(String coeff){        
+    /**
+     * Parse a conversion coefficient from a continuation record.
+     * @param r the continuation record, which gets the error if the value is
+     * malformed.
+     * @param coeff the quantity, e.g. <code>KC= 0.0902 8</code>.
+     */
+    private void parseConvCoeff(Record r, String coeff){        
         String[] valueAndUnc = coeff.split("=");        
+        if(valueAndUnc.length < 2){
+            r.setError(ParseError.NUMBER);
+            return;
+        }
         String value[] = valueAndUnc[1].trim().split("\\s+");
         value[0] = value[0].replace("(", " ");
         value[0] = value[0].replace(")", " ");
         value[0] = value[0].trim();
         String[] vTok = value[0].split("\\s+");
-        value[0] = vTok[0];
+        Double v = parseValue(r, vTok[0]);
+        if(v == null)return;
         if(coeff.startsWith("K")){
-            if(Kc == null)Kc = Double.parseDouble(value[0]);            
+            if(!isPresent(F_Kc))Kc = store(F_Kc, v);            
         }
         if(coeff.startsWith("EK")){
-            Kc = Double.parseDouble(value[0]);            
+            Kc = store(F_Kc, v);            
         }
         else if(coeff.startsWith("L")){
-            if(Lc == null)Lc = Double.parseDouble(value[0]);
+            if(!isPresent(F_Lc))Lc = store(F_Lc, v);
         }
         else if(coeff.startsWith("EL")){
-            Lc = Double.parseDouble(value[0]);
+            Lc = store(F_Lc, v);
         }
         else if(coeff.startsWith("M")){
-            if(Mc == null)Mc = Double.parseDouble(value[0]);
+            if(!isPresent(F_Mc))Mc = store(F_Mc, v);
         }
         else if(coeff.startsWith("EM")){
-            Mc = Double.parseDouble(value[0]);
+            Mc = store(F_Mc, v);
         }
     }
 
@@ -384,48 +434,49 @@ public class GammaRecord extends EmissionRecord{
      * @return the Kc
      */
     public Double getKc() {
-        return Kc;
+        return value(F_Kc, Kc);
     }
 
     /**
-     * @return the dKc
+     * @return the dKc, which is not parsed, so always <code>null</code>.
      */
     public Double getdKc() {
-        return dKc;
+        return null;
     }
 
     /**
      * @return the Lc
      */
     public Double getLc() {
-        return Lc;
+        return value(F_Lc, Lc);
     }
 
     /**
-     * @return the dLc
+     * @return the dLc, which is not parsed, so always <code>null</code>.
      */
     public Double getdLc() {
-        return dLc;
+        return null;
     }
 
     /**
      * @return the Mc
      */
     public Double getMc() {
-        return Mc;
+        return value(F_Mc, Mc);
     }
 
     /**
-     * @return the dMc
+     * @return the dMc, which is not parsed, so always <code>null</code>.
      */
     public Double getdMc() {
-        return dMc;
+        return null;
     }
     
     public static void main(String[] args){
         GammaRecord d = new GammaRecord();
         String str = " 22NAS G  KC=0.00338 5$LC=0.000205 3$MC=4.53E-6 7";
-        d.setContent("a\n"+str);
-        d.parseContinuation();
+        GammaRecord c = new GammaRecord();
+        c.setContent(str);
+        d.addContinuation(c);
     }
 }
@@ -32,7 +32,7 @@ public class HistoryRecord extends Record{
     String DATASET;
 
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         DATASET = field(10,80);
     }
 }
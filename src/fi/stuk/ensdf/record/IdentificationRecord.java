@@ -6,6 +6,8 @@
 */
 package fi.stuk.ensdf.record;
 
+import fi.stuk.ensdf.type.SymbolTable;
+
 /**
 The Identification Record<p>
 Required for all data sets.<p>
@@ -36,15 +38,20 @@ public class IdentificationRecord extends Record{
     String DSREF;
     String PUB;
     protected String DATE;
+    
+    /** The symbol table to intern the nuclide ID and dataset ID to. The
+     identification record is parsed before its dataset is created, so the
+     table is set to it directly. */
+    private SymbolTable symbols = null;
 
     @Override
     public void parse() {
         if(NUCID != null && isContinuation()){
-            NUCID += field(1,5);
+            NUCID += symbol(1,5);
         }
         else{
-            NUCID = field(1,5);
-            DSID = field(9,39);
+            NUCID = symbol(1,5);
+            DSID = symbol(9,39);
             DSREF = field(40,65);
             PUB = field(66,74);
             DATE = field(75,80);
@@ -58,6 +65,19 @@ public class IdentificationRecord extends Record{
         return DSID;
     }
 
+    /**
+     * Set the symbol table to intern the fields of this record to.
+     * @param symbols the symbol table.
+     */
+    public void setSymbols(SymbolTable symbols){
+        this.symbols = symbols;
+    }
+    
+    @Override
+    protected SymbolTable getSymbols(){
+        return((symbols != null) ? symbols : super.getSymbols());
+    }
+
     /**
      * @return the NUCID
      */
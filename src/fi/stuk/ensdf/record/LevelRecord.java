@@ -60,11 +60,11 @@ but not observed
 public class LevelRecord extends Record{
     String NUCID;
     String L;
-    protected Double E;
-    protected Uncertainty DE;
+    protected double E;
+    protected double DE;
     protected String J;
     protected HalfLifeValue T;
-    protected Uncertainty DT;
+    protected double DT;
     String L2;
     SValue S;
     String DS;
@@ -73,21 +73,93 @@ public class LevelRecord extends Record{
     String Q;
     protected int idLevel = -1;
     
-     @Override
+    /** Bits of the lazily decoded fields and of the numeric fields that
+     have a value. */
+    private static final long F_NUCID = 1, F_L = 1 << 1, F_L2 = 1 << 2, F_S = 1 << 3,
+            F_DS = 1 << 4, F_C = 1 << 5, F_Q = 1 << 6, F_E = 1 << 7;
+    
+    /** Slots of the uncertainties. */
+    private static final int U_DE = 0, U_DT = 1;
+    
+    /**
+     * Parse the fields of this record used for encoding. The rest of the fields
+     * are decoded lazily by their getters.
+     */
+    @Override
     public void parse(){
-        NUCID = field(1,5);
-        L = field(8);
-        E = dfield(10,19);
-        DE = ufield(20,21, E);
-        J = field(22,39);
+        E = dvalue(F_E, 10,19);
+        DE = uvalue(U_DE, 20,21,10,19);
+        J = symbol(22,39);
         T = hlfield(40,49);
-        DT = ufield(50,55, T);
-        L2 = field(56,64);
-        S = sfield(65,74);
-        DS = field(75,76);
-        C = field(77);
-        MS = field(78,79);
-        Q = field(80);        
+        DT = uvalue(U_DT, 50,55, T, 40,49);
+        MS = symbol(78,79);
+    }
+
+    @Override
+    public void decodeAll(){
+        getNUCID();
+        getL();
+        getL2();
+        getS();
+        getDS();
+        getC();
+        getQ();
+    }
+
+    /**
+     * @return the NUCID
+     */
+    public String getNUCID() {
+        if(needsDecoding(F_NUCID))NUCID = symbol(1,5);
+        return NUCID;
+    }
+
+    /**
+     * @return the L
+     */
+    public String getL() {
+        if(needsDecoding(F_L))L = field(8);
+        return L;
+    }
+
+    /**
+     * @return the L2
+     */
+    public String getL2() {
+        if(needsDecoding(F_L2))L2 = field(56,64);
+        return L2;
+    }
+
+    /**
+     * @return the S
+     */
+    public SValue getS() {
+        if(needsDecoding(F_S))S = sfield(65,74);
+        return S;
+    }
+
+    /**
+     * @return the DS
+     */
+    public String getDS() {
+        if(needsDecoding(F_DS))DS = field(75,76);
+        return DS;
+    }
+
+    /**
+     * @return the C
+     */
+    public String getC() {
+        if(needsDecoding(F_C))C = field(77);
+        return C;
+    }
+
+    /**
+     * @return the Q
+     */
+    public String getQ() {
+        if(needsDecoding(F_Q))Q = field(80);
+        return Q;
     }
 
     /**
@@ -108,28 +180,28 @@ public class LevelRecord extends Record{
      * @return the E
      */
     public Double getE() {
-        return E;
+        return value(F_E, E);
     }
 
     /**
      * @param E the E to set
      */
     public void setE(Double E) {
-        this.E = E;
+        this.E = store(F_E, E);
     }
 
     /**
      * @return the DE
      */
     public Uncertainty getDE() {
-        return DE;
+        return uncertainty(U_DE, DE);
     }
 
     /**
      * @param DE the DE to set
      */
     public void setDE(Uncertainty DE) {
-        this.DE = DE;
+        this.DE = storeUncertainty(U_DE, DE);
     }
 
     /**
@@ -164,13 +236,13 @@ public class LevelRecord extends Record{
      * @return the DT
      */
     public Uncertainty getDT() {
-        return DT;
+        return uncertainty(U_DT, DT);
     }
 
     /**
      * @param DT the DT to set
      */
     public void setDT(Uncertainty DT) {
-        this.DT = DT;
+        this.DT = storeUncertainty(U_DT, DT);
     }
 }
@@ -87,27 +87,45 @@ public class NormalizationRecord extends Record{
     
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         NR = dfield(10,19);
-        DNR = ufield(20,21,NR);
+        DNR = ufield(20,21,10,19);
         NT = dfield(22,29);
-        DNT = ufield(30,31,NT);
+        DNT = ufield(30,31,22,29);
         BR = dfield(32,39);
-        DBR = ufield(40,41,BR);
+        DBR = ufield(40,41,32,39);
         NB = dfield(42,49);
-        DNB = ufield(50,55,NB);
+        DNB = ufield(50,55,42,49);
         NP = dfield(56,62);
-        DNP = ufield(63,64,NP);        
+        DNP = ufield(63,64,56,62);        
     }
     
+    /**
+     * Normalize the relative intensity of a gamma record and its uncertainty.
+     * @param r the gamma record.
+     */
     public void normalize(GammaRecord r){
-        double d = r.getRI();
-        if(NR != null)r.setRI(d*NR);
-        else if(NT != null)r.setRI(d*NT);
-        else if(BR != null)r.setRI(d*BR);
-        else if(NB != null)r.setRI(d*NB);
-        else if(NP != null)r.setRI(d*NP);
-        if(BR != null && NR != null)r.setRI(d*NR*BR);
+        r.setRI(normalize(r.getRI()));
+        Uncertainty u = r.getDRI();
+        if(u != null && !u.isUnknown()){
+            u.setValue(normalize(u.getValue()));
+            r.setDRI(u);
+        }
+    }
+
+    /**
+     * Normalize a relative intensity value.
+     * @param d the value.
+     * @return the normalized value.
+     */
+    private double normalize(double d){
+        if(BR != null && NR != null)return(d*NR*BR);
+        if(NR != null)return(d*NR);
+        else if(NT != null)return(d*NT);
+        else if(BR != null)return(d*BR);
+        else if(NB != null)return(d*NB);
+        else if(NP != null)return(d*NP);
+        return(d);
        // else throw new IllegalStateException("Cant normalize gamma record.");
     }
 
@@ -57,14 +57,14 @@ public class ParentRecord extends Record{
 
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         E = dfield(10,19);
-        DE = ufield(20,21,E);
-        J = field(22,39);
+        DE = ufield(20,21,10,19);
+        J = symbol(22,39);
         T = hlfield(40,49);
         DT = field(50,55);
         QP = dfield(65,74);
-        DQP = ufield(75,76,QP);
+        DQP = ufield(75,76,65,74);
         ION = field(77,80);        
     }
 
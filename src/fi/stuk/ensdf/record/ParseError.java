@@ -0,0 +1,40 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf.record;
+
+/**
+ * ParseError describes why a line could not be parsed into a record.
+ * @see Record#getError()
+ */
+public enum ParseError {
+    /** The record type codes of the line do not match any record. */
+    UNKNOWN_RECORD("unknown record type"),
+    /** A field extends beyond the end of the line. */
+    SHORT_LINE("line too short"),
+    /** A numeric field is not a number. */
+    NUMBER("malformed number"),
+    /** An uncertainty field is not a valid uncertainty. */
+    UNCERTAINTY("malformed uncertainty"),
+    /** A half life field is not a valid half life. */
+    HALF_LIFE("malformed half life"),
+    /** Parsing the line failed with an exception. */
+    EXCEPTION("exception");
+
+    /** Description of the error. */
+    private final String description;
+
+    ParseError(String description){
+        this.description = description;
+    }
+
+    /**
+     * @return the description of the error.
+     */
+    public String getDescription(){
+        return(description);
+    }
+}
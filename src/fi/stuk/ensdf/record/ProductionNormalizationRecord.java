@@ -83,15 +83,15 @@ public class ProductionNormalizationRecord extends NormalizationRecord{
 
     @Override
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         NRxNB = dfield(10,19);
-        UNC_NRxNB = ufield(20,21,NRxNB);
+        UNC_NRxNB = ufield(20,21,10,19);
         NTxBR = dfield(22,29);
-        UNC_NTxBR = ufield(30,31,NTxBR);
+        UNC_NTxBR = ufield(30,31,22,29);
         NBxBR = dfield(42,49);
-        UNC_NBxBR = ufield(50,55,NBxBR);
+        UNC_NBxBR = ufield(50,55,42,49);
         NP = dfield(56,62);
-        UNC_NP = ufield(63,64,NP);
+        UNC_NP = ufield(63,64,56,62);
         COM = field(77);
         OPT = field(78);
     }
@@ -49,15 +49,15 @@ public class QValueRecord extends Record{
     protected String QREF;
 
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         Qm = dfield(10,19);
-        DQm = ufield(20,21,Qm);
+        DQm = ufield(20,21,10,19);
         SN = dfield(22,29);
-        DSN = ufield(30,31,SN);
+        DSN = ufield(30,31,22,29);
         SP = dfield(32,39);
-        DSP = ufield(40,41,SP);
+        DSP = ufield(40,41,32,39);
         QA = dfield(42,49);
-        DQA = ufield(50,55,QA);
+        DQA = ufield(50,55,42,49);
         QREF = field(56,80);        
     }
 
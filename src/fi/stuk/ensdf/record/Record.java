@@ -8,8 +8,13 @@ package fi.stuk.ensdf.record;
 
 import fi.stuk.ensdf.Dataset;
 import fi.stuk.ensdf.type.HalfLifeValue;
+import fi.stuk.ensdf.type.Numbers;
 import fi.stuk.ensdf.type.SValue;
+import fi.stuk.ensdf.type.SymbolTable;
 import fi.stuk.ensdf.type.Uncertainty;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Record is a base class for one line record formats.
@@ -25,9 +30,24 @@ the value by the standard format, or if a record cannot be contained on a single
 then additional cards can be prepared as described in Chapter IV (for examples,
 see Appendix C and D). Note that many of the analysis programs may not process
 standard fields when placed on the continuation records.
+ * <p>
+ * A record can be backed by a line in a shared input buffer (see
+ * {@linkplain #setSource(java.nio.ByteBuffer, int, int) }) instead of holding
+ * its content as a string. Subclasses may also decode some of their fields
+ * lazily: such fields are left out of {@linkplain #parse() } and are decoded
+ * from their columns by their getters on first access, see
+ * {@linkplain #needsDecoding(long) } and {@linkplain #decodeAll() }.
  * @author Tero Karhunen
  */
 public abstract class Record {
+    /** Shared strings of single ASCII characters, so that the many one
+     character fields (e.g. flags) do not each hold a string of their own. */
+    private static final String[] CHARACTERS = new String[128];
+    
+    static{
+        for(int i = 0;i < CHARACTERS.length;i++)CHARACTERS[i] = String.valueOf((char)i);
+    }
+    
     /** The dataset this record is added to. */
     public Dataset ds;
     
@@ -36,13 +56,120 @@ public abstract class Record {
     
     /** The textual content of this record. */
     protected String content = "";
+    
+    /** The buffer holding the line of this record, if the record is backed by
+     an input buffer instead of {@linkplain #content}. */
+    protected ByteBuffer source = null;
+    
+    /** Position of the line of this record in {@linkplain #source}. */
+    protected int offset = 0;
+    
+    /** Length of the line of this record in {@linkplain #source}. */
+    protected int length = 0;
+    
+    /** The lazily decoded fields that have already been decoded, one bit per field. */
+    private long decoded = 0;
+    
+    /** The continuation records of this record in input order, or <code>null</code>
+     if there are none. */
+    protected List<Record> continuations = null;
+    
+    /** The fields of this record that have a value, one bit per field, see
+     {@linkplain #dvalue(long, int, int) }. */
+    private long present = 0;
+    
+    /** The uncertainties of this record other than their values, packed
+     {@linkplain Uncertainty#PACKED_BITS} bits per uncertainty, see
+     {@linkplain #uvalue(int, int, int, int, int) }. */
+    private long uncertainties = 0;
+    
+    /** The first error found while parsing this record, or <code>null</code>
+     if there is none. */
+    private ParseError error = null;
+    
+    /** Start position of the field last parsed by {@linkplain #dvalue(int, int) }. */
+    private int numberStart = -1;
+    
+    /** End position of the field last parsed by {@linkplain #dvalue(int, int) }. */
+    private int numberEnd = -1;
+    
+    /** Scale of the field last parsed by {@linkplain #dvalue(int, int) },
+     see {@linkplain #scale(int, int) }. */
+    private int numberScale = 0;
 
     /**
-     * Get the textual content of this record.
+     * Get the textual content of this record. The content of continuation
+     * records added with {@linkplain #addContinuation(fi.stuk.ensdf.record.Record) }
+     * follows on separate lines.
      * @return the content as string.
      */
     public String getContent(){
-        return(content);
+        String first = getLine();
+        if(continuations == null)return(first);
+        StringBuilder b = new StringBuilder(first);
+        for(Record r : continuations)b.append('\n').append(r.getContent());
+        return(b.toString());
+    }
+    
+    /**
+     * Get the line of this record, without the lines of its continuation records.
+     * @return the line.
+     */
+    public String getLine(){
+        return((source != null) ? slice(1, length) : content);
+    }
+    
+    /**
+     * Add a continuation record to this record and parse it with
+     * {@linkplain #parseContinuation(fi.stuk.ensdf.record.Record) }. The
+     * continuation records are kept as they are, so each one is parsed only
+     * once, when it is added.
+     * @param r the continuation record.
+     */
+    public void addContinuation(Record r){
+        if(continuations == null)continuations = new ArrayList<>(2);
+        continuations.add(r);
+        parseContinuation(r);
+    }
+    
+    /**
+     * Get the continuation records of this record.
+     * @return the continuation records in input order, or <code>null</code>
+     * if there are none.
+     */
+    public List<Record> getContinuations(){
+        return(continuations);
+    }
+    
+    /**
+     * Parse the continuation records of this record again.
+     */
+    public void parseContinuation(){
+        if(continuations == null)return;
+        for(Record r : continuations)parseContinuation(r);
+    }
+    
+    /**
+     * Parse a continuation record of this record. Records with quantities on
+     * continuation records override this, the default is to ignore them.
+     * @param r the continuation record.
+     */
+    protected void parseContinuation(Record r){}
+    
+    /**
+     * Set the content of this record to be a line in a given buffer. The line
+     * is not copied, so the buffer must not be modified while this record is
+     * in use.
+     * @param source the buffer.
+     * @param offset position of the line in the buffer.
+     * @param length length of the line, including the terminating line feed.
+     * Only the first 80 characters are used, as with {@linkplain #accumulate(java.lang.String) }.
+     */
+    public void setSource(ByteBuffer source, int offset, int length){
+        this.source = source;
+        this.offset = offset;
+        this.length = Math.min(80, length);
+        this.content = "";
     }
     
     /**
@@ -52,12 +179,13 @@ public abstract class Record {
      * otherwise.
      */
     public int accumulate(String fragment){
+        if(source != null)setContent(getContent());
         int cl = content.length();
         int fl = fragment.length();
         int nNeeded = 80 - cl;
         if(nNeeded > fl)nNeeded = fl;
         String app = fragment.substring(0,nNeeded);
-        content += app;
+        content = (cl == 0) ? app : content + app;
         return(nNeeded);
     }
     
@@ -65,7 +193,192 @@ public abstract class Record {
      */
     public void clear(){
         this.content = "";
+        this.source = null;
+        this.continuations = null;
+    }
+    
+    /**
+     * Get the character at a given index of the content of this record.
+     * @param i the index (starting from 0).
+     * @return the character.
+     */
+    protected char charAt(int i){
+        if(source == null)return(content.charAt(i));
+        if(i < 0 || i >= length)throw new StringIndexOutOfBoundsException(i);
+        return((char)(source.get(offset + i) & 0xff));
+    }
+    
+    /**
+     * Get the text at given start and end positions of the content of this record.
+     * @param start start position (starting from 1).
+     * @param end end position (inclusive).
+     * @return the text.
+     */
+    private String slice(int start, int end){
+        if(source == null)return(content.substring(start-1, end));
+        if(start < 1 || end > length || start - 1 > end)
+            throw new StringIndexOutOfBoundsException("begin "+(start-1)+", end "+end+", length "+length);
+        char[] c = new char[end - start + 1];
+        for(int i = 0;i < c.length;i++)c[i] = (char)(source.get(offset + start - 1 + i) & 0xff);
+        return(new String(c));
     }
+    
+    /**
+     * See if a lazily decoded field still needs to be decoded. The field is
+     * marked decoded, so this returns <code>true</code> only on the first call.
+     * <p>
+     * A getter of a lazily decoded field typically looks like:
+     * <pre>
+     * public Double getMR() {
+     *     if(needsDecoding(F_MR))MR = dfield(42,49);
+     *     return MR;
+     * }
+     * </pre>
+     * @param field the bit of the field.
+     * @return <code>true</code> if the field should be decoded, <code>false</code>
+     * if it has already been decoded or set.
+     */
+    protected boolean needsDecoding(long field){
+        if((decoded & field) != 0)return(false);
+        decoded |= field;
+        return(true);
+    }
+    
+    /**
+     * See if lazily decoded fields have been decoded, e.g. to check that
+     * {@linkplain #decodeAll() } covers all of them.
+     * @param fields the bits of the fields.
+     * @return <code>true</code> if all the fields have been decoded or set,
+     * <code>false</code> otherwise.
+     */
+    protected boolean isDecoded(long fields){
+        return((decoded & fields) == fields);
+    }
+    
+    /**
+     * Mark a lazily decoded field as decoded, so that a value set to it is not
+     * overwritten by decoding.
+     * @param field the bit of the field.
+     */
+    protected void setDecoded(long field){
+        decoded |= field;
+    }
+    
+    /**
+     * See if a numeric field has a value. Subclasses keep numeric fields as
+     * primitive doubles, along with a bit telling whether the field has a
+     * value, instead of as <code>Double</code> objects. The bits are per record
+     * class, and may be the same as the bits of lazily decoded fields.
+     * @param field the bit of the field.
+     * @return <code>true</code> if the field has a value, <code>false</code>
+     * if it is absent.
+     */
+    protected boolean isPresent(long field){
+        return((present & field) != 0);
+    }
+    
+    /**
+     * Set whether a numeric field has a value.
+     * @param field the bit of the field.
+     * @param value the value, <code>NaN</code> if the field is absent.
+     * @return the value.
+     */
+    protected double store(long field, double value){
+        if(Double.isNaN(value))present &= ~field;
+        else present |= field;
+        return(value);
+    }
+    
+    /**
+     * Set whether a numeric field has a value, e.g. in its setter.
+     * @param field the bit of the field.
+     * @param value the value, <code>null</code> if the field is absent.
+     * @return the value as a primitive, <code>NaN</code> if it is absent.
+     */
+    protected double store(long field, Double value){
+        return(store(field, (value == null) ? Double.NaN : value));
+    }
+    
+    /**
+     * Get the value of a numeric field, e.g. in its getter.
+     * @param field the bit of the field.
+     * @param value the primitive value of the field.
+     * @return the value, or <code>null</code> if the field is absent.
+     */
+    protected Double value(long field, double value){
+        return(isPresent(field) ? value : null);
+    }
+    
+    /**
+     * Get an uncertainty of this record. Uncertainties are kept as their
+     * values, along with their other state packed in the record, see
+     * {@linkplain #uvalue(int, int, int, int, int) }. The returned uncertainty
+     * is a new object, so the uncertainty must be set back with
+     * {@linkplain #storeUncertainty(int, fi.stuk.ensdf.type.Uncertainty) } if it is
+     * modified.
+     * @param slot the slot of the uncertainty, <code>0</code> to <code>9</code>.
+     * @param value the value of the uncertainty.
+     * @return the uncertainty, or <code>null</code> if the uncertainty is absent.
+     */
+    protected Uncertainty uncertainty(int slot, double value){
+        return(Uncertainty.unpack((int)(uncertainties >>> (slot * Uncertainty.PACKED_BITS)) & Uncertainty.PACKED_MASK, value));
+    }
+    
+    /**
+     * Set an uncertainty of this record.
+     * @param slot the slot of the uncertainty, <code>0</code> to <code>9</code>.
+     * @param u the uncertainty, or <code>null</code>.
+     * @return the value of the uncertainty.
+     * @see #uncertainty(int, double) 
+     */
+    protected double storeUncertainty(int slot, Uncertainty u){
+        int shift = slot * Uncertainty.PACKED_BITS;
+        uncertainties = (uncertainties & ~((long)Uncertainty.PACKED_MASK << shift)) | ((long)Uncertainty.pack(u) << shift);
+        return((u == null) ? 0 : u.getValue());
+    }
+    
+    /**
+     * Get the first error found while parsing this record. Malformed fields do
+     * not throw, instead they are absent and the error is recorded here. A
+     * record with an error is dropped while parsing, but in lazy mode (see
+     * {@linkplain fi.stuk.ensdf.ENSDFParser#setLazy(boolean) }) the errors of
+     * lazily decoded fields are only found when the fields are first accessed.
+     * @return the error, or <code>null</code> if there is none.
+     */
+    public ParseError getError(){
+        return(error);
+    }
+    
+    /**
+     * Record an error found while parsing this record. Only the first error is
+     * kept.
+     * @param error the error.
+     */
+    protected void setError(ParseError error){
+        if(this.error == null)this.error = error;
+    }
+    
+    /**
+     * Parse a number from a given text, such as a quantity on a continuation
+     * record.
+     * @param r the record the text is from, which gets the error if the text
+     * is not a number.
+     * @param str the text.
+     * @return the number, or <code>null</code> if the text is not a number.
+     */
+    protected static Double parseValue(Record r, String str){
+        if(!Numbers.isDouble(str)){
+            r.setError(ParseError.NUMBER);
+            return(null);
+        }
+        return(Double.parseDouble(str));
+    }
+    
+    /**
+     * Decode all lazily decoded fields of this record. Records that do not
+     * decode fields lazily have nothing to do here.
+     */
+    public void decodeAll(){}
 
     /**
      * Extranct an ENSDF field from a textual representation at given end and
@@ -87,7 +400,47 @@ public abstract class Record {
      * @return the text
      */
     protected String field(int s, int e){
-        return(getENSDFField(content, s, e).trim());
+        if(!inRange(s, e))return("");
+        int a = trimStart(s-1, e);
+        int b = trimEnd(a, e);
+        if(b == a)return("");
+        if(b == a + 1){
+            char c = charAt(a);
+            if(c < CHARACTERS.length)return(CHARACTERS[c]);
+        }
+        return(slice(a+1, b));
+    }
+
+    /**
+     * Get a text value at given start and end positions, interned to the
+     * symbol table of the dataset of this record (see
+     * {@linkplain #getSymbols() }). Used for the short, much repeated fields
+     * such as nuclide IDs and spins and parities. The value is looked up
+     * directly from the line of this record, so a string is created only for
+     * values not seen before.
+     * @param s start position
+     * @param e end position
+     * @return the text
+     * @see #field(int, int) 
+     */
+    protected String symbol(int s, int e){
+        SymbolTable t = getSymbols();
+        if(t == null || !inRange(s, e))return(field(s, e));
+        int a = trimStart(s-1, e);
+        int b = trimEnd(a, e);
+        if(b - a < 2)return(field(s, e));
+        if(source != null)return(t.intern(source, offset + a, offset + b));
+        return(t.intern(content, a, b));
+    }
+
+    /**
+     * Get the symbol table the text values of {@linkplain #symbol(int, int) }
+     * are interned to.
+     * @return the symbol table of the dataset of this record, or <code>null</code>
+     * if there is none.
+     */
+    protected SymbolTable getSymbols(){
+        return((ds != null) ? ds.getSymbols() : null);
     }
 
     /**
@@ -95,25 +448,316 @@ public abstract class Record {
      * start positions
      * @param s start position
      * @param e end position
-     * @return the double
+     * @return the double, or <code>null</code> if the field is absent.
+     * @see #dvalue(int, int) 
      */
     protected Double dfield(int s, int e){
-        String str = getENSDFField(content, s, e).trim();
-        if(str.isEmpty())return(null);        
-        str = str.replace("(", "");
-        str = str.replace(")", "");
+        double d = dvalue(s, e);
+        if(Double.isNaN(d))return(null);
+        return(d);
+    }
+
+    /**
+     * Get the value of a numeric field at given start and end positions and
+     * set whether the field has a value, see {@linkplain #isPresent(long) }.
+     * @param field the bit of the field.
+     * @param s start position
+     * @param e end position
+     * @return the value, or <code>NaN</code> if the field is absent.
+     * @see #dvalue(int, int) 
+     */
+    protected double dvalue(long field, int s, int e){
+        return(store(field, dvalue(s, e)));
+    }
+
+    /**
+     * Get a double value at given start and end positions of the content of
+     * this record. The field is scanned in place, without creating intermediate
+     * strings: it is trimmed by index, the special forms below are recognized
+     * by comparing characters and the number is parsed with {@linkplain #parseNumber(int, int) }.
+     * <ul>
+     * <li>A blank field is absent.</li>
+     * <li><code>WEAK</code> is 0.</li>
+     * <li>Values relative to an unknown energy, such as <code>SP+X</code>,
+     * <code>SN+X</code>, <code>X+1.2</code> or <code>1.2+X</code>, are absent.</li>
+     * <li>A single non-digit character is absent.</li>
+     * <li>A trailing <code>AP</code> (approximate) is ignored.</li>
+     * </ul>
+     * Fields with parentheses are rare, and are parsed from a string.
+     * <p>
+     * The scale of a number parsed by {@linkplain #parseNumber(int, int) } is
+     * recorded, so that a following {@linkplain #scale(int, int) } for the same
+     * field does not need to scan the field again.
+     * @param s start position
+     * @param e end position
+     * @return the value, or <code>NaN</code> if the field is absent or malformed,
+     * see {@linkplain #getError() }.
+     */
+    protected double dvalue(int s, int e){
+        numberStart = -1;
+        if(!inRange(s, e))return(Double.NaN);
+        int a = trimStart(s-1, e);
+        int b = trimEnd(a, e);
+        if(a == b)return(Double.NaN);
+        for(int i = a;i < b;i++){
+            char c = charAt(i);
+            if(c == '(' || c == ')')return(parseDouble(slice(a+1, b)));
+        }
+        int n = b - a;
         //The implicit values below are neutron and proton separation energies, 
         // they are available in the QValueRecord, should maybe handle them
+        if(n == 4 && matches(a, b, "WEAK"))return(0d);
+        if(matches(a, b, "SP+") || matches(a, b, "SN+"))return(Double.NaN);
+        if(n > 2 && charAt(b-2) == '+' && !Character.isDigit(charAt(b-1)))return(Double.NaN);
+        if(n > 2 && charAt(a+1) == '+')return(Double.NaN);
+        if(n == 1 && !Character.isDigit(charAt(a)))return(Double.NaN);
+        if(n >= 2 && charAt(b-2) == 'A' && charAt(b-1) == 'P'){
+            b -= 2;
+            for(int i = a;i < b-1;i++){
+                if(charAt(i) == 'A' && charAt(i+1) == 'P')return(parseDouble(slice(a+1, b+2)));
+            }
+            b = trimEnd(a, b);
+        }
+        double d = parseNumber(a, b);
+        numberStart = s;
+        numberEnd = e;
+        return(d);
+    }
+
+    /**
+     * Get the scale of a numeric field at given start and end positions, i.e.
+     * the number of decimal places of its text less its exponent. This is the
+     * power of ten by which 'standard' uncertainties given in the last
+     * significant digits of the value are divided, for example 3 for
+     * <code>0.873</code>, 0 for <code>120</code>, -5 for <code>2.3E6</code> and
+     * 2 for the half life <code>30.08 Y</code>. Blank and non-numeric fields
+     * have scale 0.
+     * @param s start position
+     * @param e end position
+     * @return the scale.
+     */
+    protected int scale(int s, int e){
+        if(s == numberStart && e == numberEnd)return(numberScale);
+        if(!inRange(s, e))return(0);
+        int a = trimStart(s-1, e);
+        return(scanScale(a, trimEnd(a, e)));
+    }
+
+    /**
+     * Scan the scale of a number, see {@linkplain #scale(int, int) }. Parentheses
+     * are skipped and scanning stops at the first character that is not part
+     * of the number.
+     * @param a start index (inclusive, starting from 0).
+     * @param b end index (exclusive).
+     * @return the scale.
+     */
+    private int scanScale(int a, int b){
+        int i = a;
+        if(i < b && (charAt(i) == '+' || charAt(i) == '-'))i++;
+        int decimals = 0;
+        boolean point = false;
+        for(;i < b;i++){
+            char c = charAt(i);
+            if(c >= '0' && c <= '9'){
+                if(point)decimals++;
+            }
+            else if(c == '.' && !point)point = true;
+            else if(c != '(' && c != ')')break;
+        }
+        if(i < b && (charAt(i) == 'E' || charAt(i) == 'e'))return(decimals - scanExponent(i+1, b));
+        return(decimals);
+    }
+
+    /**
+     * Scan the exponent of a number.
+     * @param a start index of the exponent, after the 'E'.
+     * @param b end index (exclusive).
+     * @return the exponent, or <code>0</code> if there are no digits.
+     */
+    private int scanExponent(int a, int b){
+        int i = a;
+        boolean negative = false;
+        if(i < b && (charAt(i) == '+' || charAt(i) == '-')){
+            negative = charAt(i) == '-';
+            i++;
+        }
+        int exponent = 0;
+        for(;i < b && i < a + 4;i++){
+            char c = charAt(i);
+            if(c < '0' || c > '9')break;
+            exponent = exponent*10 + (c - '0');
+        }
+        return(negative ? -exponent : exponent);
+    }
+
+    /**
+     * Parse a double value from a trimmed textual representation. This is used
+     * for the rare fields that {@linkplain #dvalue(int, int) } does not handle
+     * in place.
+     * @param str the textual representation.
+     * @return the value, or <code>NaN</code> if the field is absent or malformed.
+     */
+    private double parseDouble(String str){
+        str = str.replace("(", "");
+        str = str.replace(")", "");
         if(str.equals("WEAK"))return(0d);
-        if(str.startsWith("SP+"))return(null);
-        if(str.startsWith("SN+"))return(null);        
-        if(str.length() > 2 && str.charAt(str.length()-2) == '+' && !Character.isDigit(str.charAt(str.length()-1)))return(null);
-        if(str.length() > 2 && str.charAt(1) == '+')return(null);        
-        if(str.length() == 1 && !Character.isDigit(str.charAt(0)))return(null);
+        if(str.startsWith("SP+"))return(Double.NaN);
+        if(str.startsWith("SN+"))return(Double.NaN);        
+        if(str.length() > 2 && str.charAt(str.length()-2) == '+' && !Character.isDigit(str.charAt(str.length()-1)))return(Double.NaN);
+        if(str.length() > 2 && str.charAt(1) == '+')return(Double.NaN);        
+        if(str.length() == 1 && !Character.isDigit(str.charAt(0)))return(Double.NaN);
         if(str.endsWith("AP"))str = str.replaceAll("AP", "");
+        if(!Numbers.isDouble(str)){
+            setError(ParseError.NUMBER);
+            return(Double.NaN);
+        }
+        return(Double.parseDouble(str));
+    }
+
+    /** Powers of ten that are exactly representable as doubles. */
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Parse a decimal number, optionally with an exponent, at given positions
+     * of the content of this record. Numbers with at most 15 significant digits
+     * and a small enough exponent (i.e. practically all ENSDF numbers) are
+     * computed exactly with a single multiplication or division. Anything else
+     * is left to {@linkplain Double#parseDouble(java.lang.String) }, so the
+     * result is always the same as with it.
+     * <p>
+     * The scale of the number (see {@linkplain #scale(int, int) }) is computed in
+     * the same pass and stored in {@linkplain #numberScale}.
+     * @param a start index (inclusive, starting from 0).
+     * @param b end index (exclusive).
+     * @return the value, or <code>NaN</code> if the text is not a number.
+     */
+    private double parseNumber(int a, int b){
+        int i = a;
+        boolean negative = false;
+        if(i < b && (charAt(i) == '+' || charAt(i) == '-')){
+            negative = charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int nDigits = 0;
+        int nSignificant = 0;
+        int decimals = 0;
+        boolean point = false;
+        for(;i < b;i++){
+            char c = charAt(i);
+            if(c >= '0' && c <= '9'){
+                nDigits++;
+                if(point)decimals++;
+                if(mantissa == 0 && c == '0')continue;
+                if(++nSignificant > 15)return(parseFallback(a, b));
+                mantissa = mantissa*10 + (c - '0');
+            }
+            else if(c == '.' && !point)point = true;
+            else break;
+        }
+        if(nDigits == 0)return(parseFallback(a, b));
+        int exponent = 0;
+        if(i < b){
+            char c = charAt(i++);
+            if(c != 'E' && c != 'e')return(parseFallback(a, b));
+            boolean negativeExp = false;
+            if(i < b && (charAt(i) == '+' || charAt(i) == '-')){
+                negativeExp = charAt(i) == '-';
+                i++;
+            }
+            if(i == b || b - i > 3)return(parseFallback(a, b));
+            for(;i < b;i++){
+                c = charAt(i);
+                if(c < '0' || c > '9')return(parseFallback(a, b));
+                exponent = exponent*10 + (c - '0');
+            }
+            if(negativeExp)exponent = -exponent;
+        }
+        numberScale = decimals - exponent;
+        exponent -= decimals;
+        double value;
+        if(mantissa == 0)value = 0;
+        else if(exponent >= 0 && exponent < POW10.length)value = mantissa * POW10[exponent];
+        else if(exponent < 0 && -exponent < POW10.length)value = mantissa / POW10[-exponent];
+        else return(parseFallback(a, b));
+        return(negative ? -value : value);
+    }
+
+    /**
+     * Parse a number that {@linkplain #parseNumber(int, int) } cannot compute
+     * exactly with {@linkplain Double#parseDouble(java.lang.String) }.
+     * @param a start index (inclusive, starting from 0).
+     * @param b end index (exclusive).
+     * @return the value, or <code>NaN</code> if the text is not a number.
+     */
+    private double parseFallback(int a, int b){
+        numberScale = scanScale(a, b);
+        String str = slice(a+1, b);
+        if(!Numbers.isDouble(str)){
+            setError(ParseError.NUMBER);
+            return(Double.NaN);
+        }
         return(Double.parseDouble(str));
     }
 
+    /**
+     * Check that given start and end positions are within the content of this
+     * record, recording a {@linkplain ParseError#SHORT_LINE} error if they are not.
+     * @param s start position
+     * @param e end position
+     * @return <code>true</code> if the positions are within the content,
+     * <code>false</code> otherwise.
+     */
+    private boolean inRange(int s, int e){
+        int l = (source != null) ? length : content.length();
+        if(s < 1 || e > l || s - 1 > e){
+            setError(ParseError.SHORT_LINE);
+            return(false);
+        }
+        return(true);
+    }
+
+    /**
+     * Skip leading whitespace.
+     * @param a start index (inclusive, starting from 0).
+     * @param b end index (exclusive).
+     * @return the index of the first non-whitespace character, or <code>b</code>.
+     */
+    private int trimStart(int a, int b){
+        while(a < b && charAt(a) <= ' ')a++;
+        return(a);
+    }
+
+    /**
+     * Skip trailing whitespace.
+     * @param a start index (inclusive, starting from 0).
+     * @param b end index (exclusive).
+     * @return the index following the last non-whitespace character, or <code>a</code>.
+     */
+    private int trimEnd(int a, int b){
+        while(b > a && charAt(b-1) <= ' ')b--;
+        return(b);
+    }
+
+    /**
+     * See if the content of this record contains given text at a given index,
+     * before a given end index.
+     * @param i the index (starting from 0).
+     * @param b end index (exclusive).
+     * @param text the text.
+     * @return <code>true</code> if it does, <code>false</code> otherwise.
+     */
+    private boolean matches(int i, int b, String text){
+        if(i + text.length() > b)return(false);
+        for(int j = 0;j < text.length();j++){
+            if(charAt(i+j) != text.charAt(j))return(false);
+        }
+        return(true);
+    }
+
     /**
      * Get an S-value from a textual representation at given end and
      * start positions
@@ -122,7 +766,7 @@ public abstract class Record {
      * @return the S-value
      */
     protected SValue sfield(int s, int e){
-        String str = getENSDFField(content, s, e).trim();
+        String str = field(s, e);
         if(str.isEmpty())return(null);
         return(new SValue(str));
     }
@@ -135,39 +779,77 @@ public abstract class Record {
      * @return the half life
      */
     protected HalfLifeValue hlfield(int s, int e){
-        String str = getENSDFField(content, s, e).trim();        
+        String str = field(s, e);        
         HalfLifeValue value = new HalfLifeValue();
-        value.parse(str);
+        if(!value.parse(str))setError(ParseError.HALF_LIFE);
         return(value);
     }
 
     /**
      * Get an uncertainty value from a textual representation at given end and
-     * start positions
+     * start positions. The uncertainty is given in the last significant digits
+     * of the value it refers to, so it is scaled with the scale of the text of
+     * the value, see {@linkplain #scale(int, int) }.
      * @param s start position
      * @param e end position
+     * @param bs start position of the value
+     * @param be end position of the value
      * @return the uncertainty
      */
-    protected Uncertainty ufield(int s, int e, Double base){
-        if(base == null)base = 1d;
-        String str = getENSDFField(content, s, e).trim();
+    protected Uncertainty ufield(int s, int e, int bs, int be){
+        String str = field(s, e);
         Uncertainty u = new Uncertainty();
-        u.parse(str, base);
+        if(!u.parse(str, scale(bs, be)))setError(ParseError.UNCERTAINTY);
         return(u);
     }
     
     /**
-     * Get an uncertainty value from a textual representation at given end and
-     * start positions
+     * Get the value of an uncertainty field and keep the rest of the
+     * uncertainty in a given slot of this record, see
+     * {@linkplain #uncertainty(int, double) }.
+     * @param slot the slot of the uncertainty, <code>0</code> to <code>9</code>.
      * @param s start position
      * @param e end position
+     * @param bs start position of the value
+     * @param be end position of the value
+     * @return the value of the uncertainty.
+     * @see #ufield(int, int, int, int) 
+     */
+    protected double uvalue(int slot, int s, int e, int bs, int be){
+        return(storeUncertainty(slot, ufield(s, e, bs, be)));
+    }
+    
+    /**
+     * Get the value of a half life uncertainty field and keep the rest of the
+     * uncertainty in a given slot of this record.
+     * @param slot the slot of the uncertainty, <code>0</code> to <code>9</code>.
+     * @param s start position
+     * @param e end position
+     * @param base the half life
+     * @param bs start position of the half life
+     * @param be end position of the half life
+     * @return the value of the uncertainty.
+     * @see #ufield(int, int, fi.stuk.ensdf.type.HalfLifeValue, int, int) 
+     */
+    protected double uvalue(int slot, int s, int e, HalfLifeValue base, int bs, int be){
+        return(storeUncertainty(slot, ufield(s, e, base, bs, be)));
+    }
+    
+    /**
+     * Get a half life uncertainty value from a textual representation at given
+     * end and start positions. The uncertainty is converted to seconds like
+     * {@linkplain HalfLifeValue#asSeconds() }.
+     * @param s start position
+     * @param e end position
+     * @param base the half life
+     * @param bs start position of the half life
+     * @param be end position of the half life
      * @return the uncertainty
      */
-    protected Uncertainty ufield(int s, int e, HalfLifeValue base){
+    protected Uncertainty ufield(int s, int e, HalfLifeValue base, int bs, int be){
         if(base == null)return(null);
-        String str = getENSDFField(content, s, e).trim();
-        Uncertainty u = new Uncertainty();
-        u.parse(str, base.asSeconds());
+        Uncertainty u = ufield(s, e, bs, be);
+        u.setValue(u.getValue() * base.getSecondsMultiplier());
         return(u);
     }
 
@@ -192,11 +874,11 @@ public abstract class Record {
      */
     public boolean isComment(){
         boolean comment = false;
-        char c = this.content.charAt(6);
+        char c = charAt(6);
         comment = (c == 'c' || c == 't' || c == 'D' || c == 'd' || c == 'C');
         return(comment);
 //        boolean comment2 = false;
-//        c = this.content.charAt(5);
+//        c = charAt(5);
 //        comment2 = (c == 'c' || c == 't' || c == 'D' || c == 'd');
 //        return(comment || comment2);
     }
@@ -206,8 +888,8 @@ public abstract class Record {
      * @return the code character
      */
     public char getRecordID(){
-        char code = this.content.charAt(7);
-        if(code == ' ')code = this.content.charAt(6);
+        char code = charAt(7);
+        if(code == ' ')code = charAt(6);
         return(code);
     }
     
@@ -216,7 +898,7 @@ public abstract class Record {
      * @return the second code character
      */
     public char getRecordID2(){
-        char code = this.content.charAt(6);
+        char code = charAt(6);
         return(code);
     }
 
@@ -226,7 +908,7 @@ public abstract class Record {
      * </code> otherwise.
      */
     public boolean isContinuation(){
-        return(!Character.isWhitespace(this.content.charAt(5)));
+        return(!Character.isWhitespace(charAt(5)));
     }
 
     /**
@@ -235,5 +917,6 @@ public abstract class Record {
      */
     public void setContent(String s){
         this.content = s;
+        this.source = null;
     }
 }
@@ -47,7 +47,7 @@ public class RecordComments extends Record{
     String CTEXT;
 
     public void parse(){
-        NUCID = field(1,5);
+        NUCID = symbol(1,5);
         RTYPE = field(8);
         PSYM = field(9);
         CTEXT = field(10,80);
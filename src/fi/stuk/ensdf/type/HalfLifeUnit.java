@@ -0,0 +1,73 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf.type;
+
+/**
+ * HalfLifeUnit is the unit of a {@linkplain HalfLifeValue}.
+ */
+public enum HalfLifeUnit {
+    /** Years. */
+    Y(31556926),
+    /** Days. */
+    D(86400),
+    /** Hours. */
+    H(3600),
+    /** Minutes. */
+    M(60),
+    /** Seconds. */
+    S(1),
+    /** Milliseconds. */
+    MS(1e-3),
+    /** Microseconds. */
+    US(1e-6),
+    /** Nanoseconds. */
+    NS(1e-9),
+    /** Picoseconds. */
+    PS(1e-12),
+    /** Femtoseconds. */
+    FS(1e-15),
+    /** Attoseconds. */
+    AS(1e-18),
+    /** Any other unit. Such values are not converted. */
+    OTHER(1),
+    /** Electronvolts, used for level widths. Such values are not converted. */
+    EV(1),
+    /** Kiloelectronvolts, used for level widths. Such values are not converted. */
+    KEV(1),
+    /** Megaelectronvolts, used for level widths. Such values are not converted. */
+    MEV(1);
+
+    /** The units, see {@linkplain #forSymbol(java.lang.String) }. */
+    private static final HalfLifeUnit[] UNITS = values();
+
+    /** The conversion factor to seconds. */
+    private final double secondsMultiplier;
+
+    HalfLifeUnit(double secondsMultiplier){
+        this.secondsMultiplier = secondsMultiplier;
+    }
+
+    /**
+     * Get the conversion factor to convert from this unit to seconds.
+     * @return the multiplication factor.
+     */
+    public double getSecondsMultiplier(){
+        return(secondsMultiplier);
+    }
+
+    /**
+     * Get the unit for a given ENSDF unit symbol.
+     * @param symbol the symbol, e.g. <code>MS</code>. Case is ignored.
+     * @return the unit, or {@linkplain #OTHER} if the symbol is not a known unit.
+     */
+    public static HalfLifeUnit forSymbol(String symbol){
+        for(HalfLifeUnit u : UNITS){
+            if(u != OTHER && u.name().equalsIgnoreCase(symbol))return(u);
+        }
+        return(OTHER);
+    }
+}
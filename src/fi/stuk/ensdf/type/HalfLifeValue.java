@@ -9,31 +9,83 @@ package fi.stuk.ensdf.type;
 /**
  * HalfLifeValue is an ENSDF type used for half lives.
  * <p>
- * A HalfLifeValue consists of a <i>value</i> and a <i>unit</i>. Additionally,
+ * A HalfLifeValue consists of a <i>value</i> and a <i>unit</i>, kept as the
+ * value in seconds and a {@linkplain HalfLifeUnit}. Additionally,
  * a halflife can be <i>unknown</i> (as found out by using {@linkplain #isUnknown()},
  * or <i>stable</i> as found out by using {@linkplain #isStable()};
  * @author Tero Karhunen.
  */
 public class HalfLifeValue {
-    /** The value. */
-    double value = 0;
+    /** The half life in seconds. */
+    double seconds = 0;
     
-    /** Value unit, seconds, days, months etc. */
-    String unit = null;
+    /** Value unit, seconds, days, years etc., or <code>null</code> if the
+     half life is unknown or stable. */
+    HalfLifeUnit unit = null;
+    
+    /** The unit symbol as given, if the unit is {@linkplain HalfLifeUnit#OTHER},
+     <code>null</code> otherwise. */
+    String otherUnit = null;
     
     /** Flag indicating that the half-life is unknown. */
     boolean isUnknown = false;
     
     /** Flag indicating that the nuclide is stable (i.e. no half life). */
     boolean isStable = false;
+    
+    /** Bits of a packed half life, see {@linkplain #pack(fi.stuk.ensdf.type.HalfLifeValue) }. */
+    private static final int PACKED_PRESENT = 1, PACKED_UNKNOWN = 1 << 1,
+            PACKED_STABLE = 1 << 2, PACKED_UNIT_SHIFT = 3;
+    
+    /** Number of bits in a packed half life. */
+    public static final int PACKED_BITS = 7;
+    
+    /** Mask of the bits of a packed half life. */
+    public static final int PACKED_MASK = (1 << PACKED_BITS) - 1;
+    
+    /** The units by ordinal, for unpacking. At most 15 units fit in the packed bits. */
+    private static final HalfLifeUnit[] UNITS = HalfLifeUnit.values();
+    
+    /**
+     * Pack the state of a half life other than its value in seconds into the
+     * {@linkplain #PACKED_BITS} low bits of an integer.
+     * @param hl the half life, or <code>null</code>.
+     * @return the packed half life, <code>0</code> for <code>null</code>.
+     * @see #unpack(int, double) 
+     */
+    public static int pack(HalfLifeValue hl){
+        if(hl == null)return(0);
+        int p = PACKED_PRESENT;
+        if(hl.unit != null)p |= (hl.unit.ordinal() + 1) << PACKED_UNIT_SHIFT;
+        if(hl.isUnknown)p |= PACKED_UNKNOWN;
+        if(hl.isStable)p |= PACKED_STABLE;
+        return(p);
+    }
+    
+    /**
+     * Create a half life from its packed state and value in seconds.
+     * @param packed the packed half life, see {@linkplain #pack(fi.stuk.ensdf.type.HalfLifeValue) }.
+     * @param seconds the value in seconds.
+     * @return the half life, or <code>null</code> if the packed half life is
+     * <code>null</code>.
+     */
+    public static HalfLifeValue unpack(int packed, double seconds){
+        if((packed & PACKED_PRESENT) == 0)return(null);
+        HalfLifeValue hl = new HalfLifeValue();
+        hl.seconds = seconds;
+        int u = (packed >> PACKED_UNIT_SHIFT) & 15;
+        if(u > 0)hl.unit = UNITS[u-1];
+        hl.isUnknown = (packed & PACKED_UNKNOWN) != 0;
+        hl.isStable = (packed & PACKED_STABLE) != 0;
+        return(hl);
+    }
 
     /**
      * Get the half life in seconds
      * @return the half life in seconds
      */
     public double asSeconds(){
-        double mul = getSecondsMultiplier();
-        return(value*mul);
+        return(seconds);
     }
 
     /**
@@ -54,47 +106,62 @@ public class HalfLifeValue {
         return(isUnknown);
     }
     
+    /**
+     * Get the unit the half life was given in.
+     * @return the unit, or <code>null</code> if the half life is unknown or
+     * stable.
+     */
+    public HalfLifeUnit getUnit(){
+        return(unit);
+    }
+    
     /**
      * Get the conversion factor to convert from {@linkplain #unit} to seconds.
      * @return the multiplication factor
      */
-    private double getSecondsMultiplier(){
+    public double getSecondsMultiplier(){
         if(this.unit == null)return(1);
-        else if(this.unit.equalsIgnoreCase("S"))return (1);
-        else if(this.unit.equalsIgnoreCase("M"))return (60);
-        else if(this.unit.equalsIgnoreCase("H"))return (3600);
-        else if(this.unit.equalsIgnoreCase("Y"))return (31556926);
-        else if(this.unit.equalsIgnoreCase("D"))return (86400);
-        else if(this.unit.equalsIgnoreCase("MS"))return (1e-3);
-        else if(this.unit.equalsIgnoreCase("US"))return (1e-6);
-        else if(this.unit.equalsIgnoreCase("NS"))return (1e-9);
-        else if(this.unit.equalsIgnoreCase("PS"))return (1e-12);
-        else if(this.unit.equalsIgnoreCase("FS"))return (1e-15);
-        else if(this.unit.equalsIgnoreCase("AS"))return (1e-18);
-        return(1d);
+        return(unit.getSecondsMultiplier());
     }
 
     /**
      * Parse a half life value from ENSDF textual representation.
      * @param s the string holding the ENSDF textual representation.
+     * @return <code>true</code> if the text is a valid half life,
+     * <code>false</code> if the value is malformed, in which case the half
+     * life is unknown.
      */
-    public void parse(String s){
+    public boolean parse(String s){
         if(s.equalsIgnoreCase("STABLE")){
             isStable = true;
-            return;
+            return(true);
         }
         String[] tok = s.split("\\s+");
         if(tok.length == 2){
-            this.value = Double.parseDouble(tok[0]);
-            this.unit = tok[1];
+            if(!Numbers.isDouble(tok[0])){
+                isUnknown = true;
+                return(false);
+            }
+            this.unit = HalfLifeUnit.forSymbol(tok[1]);
+            if(unit == HalfLifeUnit.OTHER)otherUnit = tok[1];
+            this.seconds = Double.parseDouble(tok[0]) * unit.getSecondsMultiplier();
         }
         else isUnknown = true;
+        return(true);
     }
 
+    /**
+     * Get the text of this half life: the value and the unit symbol. The
+     * symbol of a unit other than those listed in {@linkplain HalfLifeUnit} is
+     * not kept when the half life is packed (see
+     * {@linkplain #pack(fi.stuk.ensdf.type.HalfLifeValue) }), so an unpacked
+     * value prints it as <code>OTHER</code>.
+     * @return the text.
+     */
     @Override
     public String toString(){
         if(isUnknown)return("unknown");
         if(isStable)return("stable");
-        return(value+" "+unit);
+        return((seconds / unit.getSecondsMultiplier())+" "+((otherUnit != null) ? otherUnit : unit));
     }
 }
@@ -0,0 +1,90 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf.type;
+
+/**
+ * Numbers checks the textual representations of numbers before parsing them,
+ * so that malformed numbers can be reported without throwing and catching a
+ * {@linkplain NumberFormatException}.
+ */
+public final class Numbers {
+    private Numbers(){
+    }
+
+    /**
+     * See if a given text is a number accepted by {@linkplain Double#parseDouble(java.lang.String) }.
+     * Decimal numbers (with optional sign, exponent and type suffix),
+     * <code>NaN</code> and <code>Infinity</code> are checked directly, and the
+     * rare hexadecimal numbers are left to {@linkplain Double#parseDouble(java.lang.String) }.
+     * @param s the text.
+     * @return <code>true</code> if the text is a number, <code>false</code> otherwise.
+     */
+    public static boolean isDouble(String s){
+        int a = 0;
+        int b = s.length();
+        while(a < b && s.charAt(a) <= ' ')a++;
+        while(b > a && s.charAt(b-1) <= ' ')b--;
+        if(a < b && (s.charAt(a) == '+' || s.charAt(a) == '-'))a++;
+        if(b - a == 3 && s.startsWith("NaN", a))return(true);
+        if(b - a == 8 && s.startsWith("Infinity", a))return(true);
+        if(b - a > 1 && s.charAt(a) == '0' && (s.charAt(a+1) == 'x' || s.charAt(a+1) == 'X')){
+            try{
+                Double.parseDouble(s);
+                return(true);
+            }
+            catch(NumberFormatException ex){
+                return(false);
+            }
+        }
+        if(a < b && "fFdD".indexOf(s.charAt(b-1)) >= 0)b--;
+        int i = a;
+        int digits = 0;
+        while(i < b && isDigit(s.charAt(i))){
+            i++;
+            digits++;
+        }
+        if(i < b && s.charAt(i) == '.'){
+            i++;
+            while(i < b && isDigit(s.charAt(i))){
+                i++;
+                digits++;
+            }
+        }
+        if(digits == 0)return(false);
+        if(i < b && (s.charAt(i) == 'E' || s.charAt(i) == 'e')){
+            i++;
+            if(i < b && (s.charAt(i) == '+' || s.charAt(i) == '-'))i++;
+            int expDigits = 0;
+            while(i < b && isDigit(s.charAt(i))){
+                i++;
+                expDigits++;
+            }
+            if(expDigits == 0)return(false);
+        }
+        return(i == b);
+    }
+
+    /**
+     * Parse a number, without throwing if the text is not a number.
+     * @param s the text.
+     * @return the number, or <code>NaN</code> if the text is not a number.
+     * @see #isDouble(java.lang.String)
+     */
+    public static double parseDouble(String s){
+        if(!isDouble(s))return(Double.NaN);
+        return(Double.parseDouble(s));
+    }
+
+    /**
+     * See if a given character is an ASCII digit.
+     * @param c the character.
+     * @return <code>true</code> if the character is a digit, <code>false</code> otherwise.
+     */
+    private static boolean isDigit(char c){
+        return(c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,280 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.ensdf.type;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * SymbolTable interns the short, much repeated text fields of records, such
+ * as nuclide IDs, spins and parities, multipolarities and units, so that equal
+ * values share one string instead of each record holding a copy of its own.
+ * <p>
+ * A value can be interned directly from the bytes of an input line (see
+ * {@linkplain #intern(java.nio.ByteBuffer, int, int) }): the slice is hashed
+ * and compared in place, and a string is created only for values not seen
+ * before. Each interned value also gets a small integer id (see
+ * {@linkplain #id(java.lang.String) }), which can be compared and hashed
+ * instead of the string.
+ * <p>
+ * The table is shared by the scanners of one parser and used when decoding
+ * records lazily, so it is thread safe. The values are distributed to
+ * segments by their hash codes, and each segment is locked separately.
+ */
+public class SymbolTable {
+    /** Number of segments, a power of two. */
+    private static final int SEGMENTS = 16;
+
+    /** Initial capacity of a segment, a power of two. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The segments. */
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /** The values by their ids. */
+    private String[] values = new String[INITIAL_CAPACITY];
+
+    /** Number of values. */
+    private int size = 0;
+
+    /**
+     * Segment is an open addressing hash table of a part of the values.
+     */
+    private class Segment {
+        /** The values, or <code>null</code> for free slots. */
+        String[] keys = new String[INITIAL_CAPACITY];
+
+        /** The ids of the values. */
+        int[] ids = new int[INITIAL_CAPACITY];
+
+        /** Number of values. */
+        int count = 0;
+
+        /**
+         * Find the slot of a value of a given hash code, or the free slot to
+         * add it to.
+         * @param h the hash code.
+         * @param s the source of the value.
+         * @param start start index of the value in the source.
+         * @param end end index of the value in the source (exclusive).
+         * @return the slot.
+         */
+        int find(int h, Object s, int start, int end){
+            int mask = keys.length - 1;
+            int i = spread(h) & mask;
+            while(keys[i] != null && !(keys[i].hashCode() == h && matches(keys[i], s, start, end)))
+                i = (i + 1) & mask;
+            return(i);
+        }
+
+        /**
+         * Get the slot of a value, adding the value if it is not in this
+         * segment. The caller must hold the lock of this segment.
+         * @param h the hash code of the value.
+         * @param s the source of the value.
+         * @param start start index of the value in the source.
+         * @param end end index of the value in the source (exclusive).
+         * @return the slot of the value.
+         */
+        private int slot(int h, Object s, int start, int end){
+            int i = find(h, s, start, end);
+            if(keys[i] != null)return(i);
+            String v = toString(s, start, end);
+            keys[i] = v;
+            ids[i] = add(v);
+            if(++count * 2 <= keys.length)return(i);
+            rehash();
+            return(find(h, v, 0, v.length()));
+        }
+
+        /**
+         * Get the interned string of a value, adding the value if it is not
+         * in this segment.
+         * @param h the hash code of the value.
+         * @param s the source of the value.
+         * @param start start index of the value in the source.
+         * @param end end index of the value in the source (exclusive).
+         * @return the string.
+         */
+        synchronized String intern(int h, Object s, int start, int end){
+            //Find the slot first, as adding the value may replace the arrays
+            int i = slot(h, s, start, end);
+            return(keys[i]);
+        }
+
+        /**
+         * Get the id of a value, adding the value if it is not in this segment.
+         * @param h the hash code of the value.
+         * @param s the source of the value.
+         * @param start start index of the value in the source.
+         * @param end end index of the value in the source (exclusive).
+         * @return the id.
+         */
+        synchronized int id(int h, Object s, int start, int end){
+            int i = slot(h, s, start, end);
+            return(ids[i]);
+        }
+
+        /**
+         * Double the capacity of this segment.
+         */
+        private void rehash(){
+            String[] k = keys;
+            int[] d = ids;
+            keys = new String[k.length * 2];
+            ids = new int[k.length * 2];
+            for(int j = 0;j < k.length;j++){
+                if(k[j] == null)continue;
+                int i = find(k[j].hashCode(), k[j], 0, k[j].length());
+                keys[i] = k[j];
+                ids[i] = d[j];
+            }
+        }
+
+        /**
+         * Create the string of a value.
+         * @param s the source of the value.
+         * @param start start index of the value in the source.
+         * @param end end index of the value in the source (exclusive).
+         * @return the string.
+         */
+        private String toString(Object s, int start, int end){
+            if(s instanceof String){
+                String str = (String)s;
+                return((start == 0 && end == str.length()) ? str : str.substring(start, end));
+            }
+            ByteBuffer b = (ByteBuffer)s;
+            char[] c = new char[end - start];
+            for(int i = 0;i < c.length;i++)c[i] = (char)(b.get(start + i) & 0xff);
+            return(new String(c));
+        }
+    }
+
+    /**
+     * Create an empty symbol table.
+     */
+    public SymbolTable(){
+        for(int i = 0;i < SEGMENTS;i++)segments[i] = new Segment();
+    }
+
+    /**
+     * Intern a string.
+     * @param s the string, or <code>null</code>.
+     * @return the interned string equal to the given string, or <code>null</code>.
+     */
+    public String intern(String s){
+        if(s == null)return(null);
+        int h = s.hashCode();
+        return(segment(h).intern(h, s, 0, s.length()));
+    }
+
+    /**
+     * Intern a part of a string.
+     * @param s the string.
+     * @param start start index of the part.
+     * @param end end index of the part (exclusive).
+     * @return the interned string equal to the part.
+     */
+    public String intern(String s, int start, int end){
+        int h = 0;
+        for(int i = start;i < end;i++)h = 31 * h + s.charAt(i);
+        return(segment(h).intern(h, s, start, end));
+    }
+
+    /**
+     * Intern a slice of ISO-8859-1 encoded bytes without creating a string
+     * for it, unless the value has not been interned before.
+     * @param b the buffer holding the bytes.
+     * @param start position of the first byte of the slice.
+     * @param end position after the last byte of the slice.
+     * @return the interned string of the slice.
+     */
+    public String intern(ByteBuffer b, int start, int end){
+        int h = 0;
+        for(int i = start;i < end;i++)h = 31 * h + (b.get(i) & 0xff);
+        return(segment(h).intern(h, b, start, end));
+    }
+
+    /**
+     * Get the id of a string, interning the string if it has not been
+     * interned before. The ids are assigned in interning order starting from
+     * <code>0</code>, so equal strings interned to the same table have equal
+     * ids.
+     * @param s the string.
+     * @return the id.
+     */
+    public int id(String s){
+        int h = s.hashCode();
+        return(segment(h).id(h, s, 0, s.length()));
+    }
+
+    /**
+     * Get an interned string by its id.
+     * @param id the id.
+     * @return the string.
+     * @see #id(java.lang.String)
+     */
+    public synchronized String get(int id){
+        return(values[id]);
+    }
+
+    /**
+     * Get the number of interned strings.
+     * @return the number of strings.
+     */
+    public synchronized int size(){
+        return(size);
+    }
+
+    /**
+     * Add a new value, giving it the next id.
+     * @param v the value.
+     * @return the id.
+     */
+    private synchronized int add(String v){
+        if(size == values.length)values = Arrays.copyOf(values, size * 2);
+        values[size] = v;
+        return(size++);
+    }
+
+    /**
+     * Get the segment of a hash code.
+     * @param h the hash code.
+     * @return the segment.
+     */
+    private Segment segment(int h){
+        return(segments[(spread(h) >>> 16) & (SEGMENTS - 1)]);
+    }
+
+    /**
+     * Spread the bits of a hash code, so that values differing in their last
+     * characters do not end up in neighbouring slots.
+     * @param h the hash code.
+     * @return the spread hash code.
+     */
+    private static int spread(int h){
+        h *= 0x9e3779b9;
+        return(h ^ (h >>> 15));
+    }
+
+    /**
+     * See if a string equals a part of a source.
+     * @param k the string.
+     * @param s the source, a string or a buffer of ISO-8859-1 encoded bytes.
+     * @param start start index of the part.
+     * @param end end index of the part (exclusive).
+     * @return <code>true</code> if the string equals the part, <code>false</code>
+     * otherwise.
+     */
+    private static boolean matches(String k, Object s, int start, int end){
+        if(k.length() != end - start)return(false);
+        if(s instanceof String)return(((String)s).regionMatches(start, k, 0, k.length()));
+        ByteBuffer b = (ByteBuffer)s;
+        for(int i = 0;i < k.length();i++)if(k.charAt(i) != (b.get(start + i) & 0xff))return(false);
+        return(true);
+    }
+}
@@ -68,6 +68,16 @@ public class Uncertainty {
     /** Min value for asymmetric uncertainty ({@linkplain #value} is then the
      max value). */
     double minValue = 0;
+    
+    /** Bits of a packed uncertainty, see {@linkplain #pack(fi.stuk.ensdf.type.Uncertainty) }. */
+    private static final int PACKED_PRESENT = 1, PACKED_UNKNOWN = 1 << 1,
+            PACKED_ASYMMETRIC = 1 << 2, PACKED_INDEX_SHIFT = 3;
+    
+    /** Number of bits in a packed uncertainty. */
+    public static final int PACKED_BITS = 6;
+    
+    /** Mask of the bits of a packed uncertainty. */
+    public static final int PACKED_MASK = (1 << PACKED_BITS) - 1;
 
     /**
      * Get the uncertainty value.
@@ -77,30 +87,128 @@ public class Uncertainty {
         return(value);
     }
     
+    /**
+     * Set the uncertainty value, e.g. to convert it to other units.
+     * @param value the value.
+     */
+    public void setValue(double value){
+        this.value = value;
+    }
+    
+    /** Powers of ten that are exactly representable as doubles. */
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
     /**
      * Parse an uncertainty from an ENSDF textual representation.
+     * <p>
+     * The scale is derived from the value as a double, which does not always
+     * match the text the value was parsed from, see {@linkplain #parse(java.lang.String, int) }.
      * @param s the string holding the ENSDF textual representation.
+     * @param base the value the uncertainty refers to.
+     * @return <code>true</code> if the text is a valid uncertainty,
+     * <code>false</code> if it is malformed, in which case the uncertainty is
+     * unknown.
      */
-    public void parse(String s, double base){
+    public boolean parse(String s, double base){
+        return(parse(s, Math.max(0, BigDecimal.valueOf(base).scale())));
+    }
+    
+    /**
+     * Parse an uncertainty from an ENSDF textual representation. The
+     * uncertainty is given in the last significant digits of the value it
+     * refers to, so the uncertainty digits are divided by ten to the power of
+     * the scale (number of decimal places less the exponent) of the text of
+     * the value. For example, NR=0.873, DNR=11 is 0.011 and QP=2.3E6, DQP=10
+     * is 1.0E6.
+     * @param s the string holding the ENSDF textual representation.
+     * @param scale the scale of the value the uncertainty refers to.
+     * @return <code>true</code> if the text is a valid uncertainty,
+     * <code>false</code> if it is malformed, in which case the uncertainty is
+     * unknown.
+     */
+    public boolean parse(String s, int scale){
         if(s.isEmpty()){
             unknown = true;
-            return;
+            return(true);
         }
         asymmetric = isAsymmetric(s);
         if(asymmetric){
             parseAsymmetric(s);
-            return;
+            return(true);
         }
         for(int i = 0;i < exp.length;i++){
             if(exp[i].equals(s)){
                 index = i;
-                return;
+                return(true);
             }
         }
-        value = Double.parseDouble(s);
-        int scale = BigDecimal.valueOf(base).scale();
+        value = parseDigits(s);
+        if(Double.isNaN(value)){
+            value = 0;
+            unknown = true;
+            return(false);
+        }
         if(scale > 0)
-            value = value * Math.pow(10,-scale);
+            value = (scale < POW10.length) ? value / POW10[scale] : value * Math.pow(10, -scale);
+        else if(scale < 0)
+            value = (-scale < POW10.length) ? value * POW10[-scale] : value * Math.pow(10, -scale);
+        return(true);
+    }
+
+    /**
+     * Parse the digits of a numeric uncertainty. Uncertainties are nearly always
+     * one or two digit integers, anything else is parsed with {@linkplain Numbers#parseDouble(java.lang.String) }.
+     * @param s the digits.
+     * @return the value, or <code>NaN</code> if the text is not a number.
+     */
+    private static double parseDigits(String s){
+        int l = s.length();
+        if(l > 9)return(Numbers.parseDouble(s));
+        int v = 0;
+        for(int i = 0;i < l;i++){
+            char c = s.charAt(i);
+            if(c < '0' || c > '9')return(Numbers.parseDouble(s));
+            v = v*10 + (c - '0');
+        }
+        return(v);
+    }
+
+    /**
+     * Pack the state of an uncertainty other than its value into the
+     * {@linkplain #PACKED_BITS} low bits of an integer, so that records can
+     * keep their uncertainties as a double value and a few bits instead of
+     * an object. The {@linkplain #minValue} of asymmetric uncertainties is
+     * not packed, as it is not parsed.
+     * @param u the uncertainty, or <code>null</code>.
+     * @return the packed uncertainty, <code>0</code> for <code>null</code>.
+     * @see #unpack(int, double) 
+     */
+    public static int pack(Uncertainty u){
+        if(u == null)return(0);
+        int p = PACKED_PRESENT | ((u.index + 1) << PACKED_INDEX_SHIFT);
+        if(u.unknown)p |= PACKED_UNKNOWN;
+        if(u.asymmetric)p |= PACKED_ASYMMETRIC;
+        return(p);
+    }
+    
+    /**
+     * Create an uncertainty from its packed state and value.
+     * @param packed the packed uncertainty, see {@linkplain #pack(fi.stuk.ensdf.type.Uncertainty) }.
+     * @param value the value.
+     * @return the uncertainty, or <code>null</code> if the packed uncertainty
+     * is <code>null</code>.
+     */
+    public static Uncertainty unpack(int packed, double value){
+        if((packed & PACKED_PRESENT) == 0)return(null);
+        Uncertainty u = new Uncertainty();
+        u.value = value;
+        u.index = ((packed >> PACKED_INDEX_SHIFT) & 7) - 1;
+        u.unknown = (packed & PACKED_UNKNOWN) != 0;
+        u.asymmetric = (packed & PACKED_ASYMMETRIC) != 0;
+        return(u);
     }
 
     /**
@@ -132,9 +240,8 @@ public class Uncertainty {
     }                
     
     public static void main(String[] args){
-        double d = 1.2;
         Uncertainty u = new Uncertainty();
-        u.parse("2", d);
+        u.parse("2", 1);
         
     }
 }
@@ -9,11 +9,11 @@ package fi.stuk.nuclibre;
 import fi.stuk.ensdf.AdoptedDataset;
 import fi.stuk.ensdf.Decay;
 import fi.stuk.ensdf.DecayDataset;
+import fi.stuk.ensdf.DecayId;
 import fi.stuk.ensdf.ENSDFParser;
 import fi.stuk.ensdf.NuclideDataset;
 import fi.stuk.ensdf.PeriodicTable;
 import fi.stuk.ensdf.record.AlphaRecord;
-import fi.stuk.ensdf.record.BetaRecord;
 import fi.stuk.ensdf.record.ECRecord;
 import fi.stuk.ensdf.record.EmissionRecord;
 import fi.stuk.ensdf.record.GammaRecord;
@@ -27,9 +27,9 @@ import fi.stuk.ensdf.type.HalfLifeValue;
 import fi.stuk.ensdf.type.Uncertainty;
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -46,11 +46,9 @@ import java.util.logging.Logger;
  * @author Tero Karhunen
  */
 public class ENSDFNuclibreEncoder {    
-    /** Keep track of the metastable states represented as isomers. */
-    HashMap<String, HashMap<String,HalfLifeValue>> isomers = new HashMap<>();
-    
-    /** Keep track of stored isomers.*/
-    HashSet<String> storedIsomers = new HashSet<>();
+    /** Keep track of the metastable states represented as isomers, and of
+     the isomers whose lines have been stored. */
+    IsomerRegistry isomers = new IsomerRegistry();
     
     /** Keep track of nuclides, where the half-life is not evident on the nuclide dataset. It may 
      be encountered as a parent record later.*/
@@ -58,6 +56,9 @@ public class ENSDFNuclibreEncoder {
     
     /** Element electron shell data. */
     ShellData[] shellData;
+    
+    /** Reusable buffer for the intensities of the x-ray lines of a decay. */
+    double[] xRayBuffer = new double[0];
 
     public final OutputDialect outputDialect;
 
@@ -194,84 +195,9 @@ public class ENSDFNuclibreEncoder {
                "nuclideId", isomerId, "z",Z, "a",A, "isomer",MS, "halflife", halfLifeSeconds , 
                "isStable", isStable, "category", null, "qMinus", qMinus, "uncQMinus", uncQMinus, "sn", SN, "uncSn",uncSN, "sp", SP, "uncSp", uncSP,
                "qAlpha", qAlpha, "uncQAlpha", uncQAlpha, "qPlus", qPlus, "uncQPlus", uncQPlus, "source", source);       
-       putToIsomers(nuclideId, MS, msHalflife);
+       isomers.put(nuclideId, MS, msHalflife);
     }  
     
-    /**
-     * Get the assigned metastable symbol from {@linkplain #isomers} for given nuclide id and halflife.
-     * @param nuclideId the nuclib nuclid id.
-     * @param h the halflife.
-     * @return the metastable symbol.
-     */
-    private String getMSForHalflife(String nuclideId, HalfLifeValue h){
-        HashMap<String, HalfLifeValue> m = isomers.get(nuclideId);
-        if(m == null)return("m");
-        Iterator<String> i = m.keySet().iterator();
-        int max = 1;
-        while(i.hasNext()){
-            String ms = i.next();
-            HalfLifeValue hl = m.get(ms);
-            double r = hl.asSeconds() / h.asSeconds();                        
-            if(r > 0.9995 && r < 1.0005)return(ms);
-            if(Character.isDigit(ms.charAt(ms.length()-1))){
-                int n = Integer.parseInt(""+ms.charAt(ms.length()-1));
-                if(n > max)max = n;
-            }
-        }
-        max++;
-        return("m"+max);
-    }
-    
-     /**
-     * Get the assigned metastable symbol from {@linkplain #isomers} for given nuclide id and halflife.
-     * @param nuclideId the nuclib nuclid id.
-     * @param h the halflife.
-     * @return the metastable symbol.
-     */
-    private String getStoredMSForHalflife(String nuclideId, HalfLifeValue h){
-        HashMap<String, HalfLifeValue> m = isomers.get(nuclideId);
-        if(m == null)return(null);
-        Iterator<String> i = m.keySet().iterator();        
-        while(i.hasNext()){
-            String ms = i.next();
-            HalfLifeValue hl = m.get(ms);
-            double r = hl.asSeconds() / h.asSeconds();                        
-            if(r > 0.95 && r < 1.05)return(ms);            
-        }
-        return(null);
-    }
-    
-    /**
-     * See if a given nuclide has an isomer in {@linkplain #isomers} with given
-     * metastable symbol.
-     * @param nuclideId the nuclib nuclide id.
-     * @param MS the metastable symbol.
-     * @return <code>true</code> if the nuclide has that isomer, <code>false</code>
-     * otherwise.
-     */
-    private boolean hasIsomer(String nuclideId, String MS){
-        HashMap<String, HalfLifeValue> m = isomers.get(nuclideId);
-        if(m == null)return(false);
-        if(m.get(MS) != null)return(true);
-        return(false);
-    }
-    
-    /**
-     * Put an isomer with given nuclibre nuclide id, metastable symbol and 
-     * halflife into {@linkplain #isomers}.
-     * @param nuclideId the nuclibre nuclide id.
-     * @param MS the metastable symbol.
-     * @param hl the halflife.
-     */
-    private void putToIsomers(String nuclideId, String MS, HalfLifeValue hl){
-        HashMap<String, HalfLifeValue> m = isomers.get(nuclideId);
-        if(m == null){
-            m = new HashMap<>();                        
-            isomers.put(nuclideId, m);
-        }
-        m.put(MS, hl);
-    }
-    
     /**
      * Store nuclide energy states (levels) to database.
      * @param d the nuclide dataset to store the states for.
@@ -317,6 +243,7 @@ public class ENSDFNuclibreEncoder {
         gs.setE((Double) 0d);
         gs.setT(pr.getT());              
         dpds.getAdoptedDataset().getRecords().add(0,gs);
+        dpds.getAdoptedDataset().invalidateLevelIndex();
         storeNuclide(dpds, c);
         storeStates(dpds, c);
 //        storeDecays(dpds, c, map);
@@ -328,7 +255,7 @@ public class ENSDFNuclibreEncoder {
      * Check if a given decaying level with given energy is metastable. If it is, 
      * store an isomer corresponding to the level.
      * @param decayingLevel the decaying level.
-     * @param dsid dataset id for the decay
+     * @param id the parsed dataset id of the decay.
      * @param parentNUCID parent ENSDF style NUCID.
      * @param decayingLevelEnergy the energy of the decaying level (keV).
      * @param parentDataset parent dataset.
@@ -337,7 +264,7 @@ public class ENSDFNuclibreEncoder {
      * otherwise.
      * @throws Exception 
      */
-    private String checkMetastableLevel(boolean isIT, HalfLifeValue prHalf, LevelRecord decayingLevel, String dsid, String parentNUCID, double decayingLevelEnergy, NuclideDataset parentDataset, Connection c)
+    private String checkMetastableLevel(boolean isIT, HalfLifeValue prHalf, LevelRecord decayingLevel, DecayId id, String parentNUCID, double decayingLevelEnergy, NuclideDataset parentDataset, Connection c)
     throws Exception{
             //See if the decaying level is metastable
             String MS = "";            
@@ -345,7 +272,7 @@ public class ENSDFNuclibreEncoder {
                 if(decayingLevel != null && decayingLevel.MS != null)MS = decayingLevel.MS;
                 MS = MS.toLowerCase();
             }
-            HalfLifeValue dbcHl = EncoderUtil.getMetastableSymbol(dsid, parentDataset);
+            HalfLifeValue dbcHl = EncoderUtil.getMetastableSymbol(id, parentDataset);
             if(isIT){                
                 if(decayingLevel != null && decayingLevel.getT() != null && decayingLevel.getT().asSeconds() != 0)dbcHl = decayingLevel.getT();
                 if(dbcHl == null)dbcHl = prHalf;
@@ -353,7 +280,7 @@ public class ENSDFNuclibreEncoder {
             if(dbcHl != null){
                 String nid = EncoderUtil.getNuclibNuclideId(parentNUCID);
                 if(!(decayingLevel != null && decayingLevel.getE() != null && decayingLevel.getE() == 0.0))
-                    MS = getMSForHalflife(nid, dbcHl);     
+                    MS = isomers.getSymbol(nid, dbcHl);     
                 else MS = "";
             }         
             
@@ -361,7 +288,7 @@ public class ENSDFNuclibreEncoder {
             if(MS != null && MS.length() > 0){                
                 MS = MS.toLowerCase();               
                 String nid = EncoderUtil.getNuclibNuclideId(parentNUCID);                 
-                if(!hasIsomer(nid, MS)){
+                if(!isomers.contains(nid, MS)){
                     LevelRecord l = null;
                     if(decayingLevelEnergy > -1)l = EncoderUtil.getLevelFromAdoptedDataset(decayingLevelEnergy, parentDataset.getAdoptedDataset());
                     HalfLifeValue isomerHl = null;
@@ -381,130 +308,6 @@ public class ENSDFNuclibreEncoder {
     /** Tolerance for energy level search. */
     double TOL = 0.0002;
     
-    /**
-     * Get the total transition intensity from a given energy level.
-     * @param levelEn the level energy.
-     * @param d the decay to get the transitions for.
-     * @return the total transition intensity.
-     */
-    private double getTotalTransInt(double levelEn, Decay d){
-             List<Record> records = d.getRecords();
-        Record prev = null;        
-        double total = 0d;        
-        for(Record r: records){
-            if(r instanceof EmissionRecord){
-                EmissionRecord er = (EmissionRecord)r;
-                String lineType = EncoderUtil.getLineType(er);
-                if(!lineType.equalsIgnoreCase("SF")){                              
-                    Double en = er.getE();                     
-                    LevelRecord fromLevel = null;
-                    if(lineType.equals("G")){                       
-                        if(prev instanceof LevelRecord){
-                            fromLevel = (LevelRecord)prev;                                                                          
-                        }
-                        if (fromLevel != null && en != null && fromLevel.getE() != null) {
-                            double dFromEn = fromLevel.getE();                            
-                            if( Math.abs(dFromEn - levelEn) < TOL){  
-                                if(er.getRI() != null){
-                                        total += er.getRI();
-                                }                                    
-                            }
-                        }
-                    }                    
-                }
-            }            
-            if(r instanceof LevelRecord){
-                prev = r;                
-            }            
-        }
-        return(total);
-    }
-    
-    /**
-     * Get transitions to a given energy level.
-     * @param levelEn the energy level.
-     * @param d the decay to find the transitions from.
-     * @param add list to receive the transitions.
-     * @param depth current depth in depth-first search.
-     * @param iDepth current depth in depth-first search as an integer.
-     * @param checkedEn set of already checked energies.
-     */
-    private void getTransitionsToLevel(double levelEn, Decay d, List<Transition> add, double depth, int iDepth, HashSet<Double> checkedEn){
-        if(checkedEn.contains(levelEn))return;        
-         List<Record> records = d.getRecords();
-        Record prev = null;
-        EmissionRecord prevEm = null;
-        double lastAddedLevelEn = -1;
-        if(dPrint)System.out.println("Find transitions for "+d.getKey()+" "+levelEn+" keV depth:"+iDepth);
-        for(Record r: records){
-            if(r instanceof EmissionRecord){
-                EmissionRecord er = (EmissionRecord)r;
-                String lineType = EncoderUtil.getLineType(er);
-                if(!lineType.equalsIgnoreCase("SF")){                              
-                    Double en = er.getE();                     
-                    LevelRecord fromLevel = null;
-                    if(lineType.equals("G")){
-                        if(prev instanceof LevelRecord){
-                            fromLevel = (LevelRecord)prev;                                                
-                        }
-                        if (fromLevel != null && en != null && fromLevel.getE() != null && fromLevel.getE() >= levelEn) {
-                            double dFromEn = fromLevel.getE();
-                            if(dPrint)System.out.print(iDepth+" "+d.getKey()+ " Consider level "+fromLevel.getE()+"  with emission "+en+" yield:"+er.getRI());
-                            double toLevelEn = dFromEn - en;
-                            double ratio = levelEn / toLevelEn;
-                            if(dPrint)System.out.print(" tr. en. is "+toLevelEn+" / "+levelEn);
-                            if(dPrint)System.out.print(" r: "+ratio);
-                            if(iDepth == 1 && Math.abs(dFromEn - levelEn) < 0.01){
-                                if( prevEm != null && prevEm.getRI() != null
-                                    && fromLevel.getE() != lastAddedLevelEn){
-                                    double feedingProb = prevEm.getRI()/100d;
-                                    if(dPrint)System.out.print(" <-- fed directly "+(feedingProb*100d));
-                                    Transition t = new Transition(fromLevel.getE(), toLevelEn, 1, feedingProb);
-                                    lastAddedLevelEn = fromLevel.getE();
-                                    t.isDirect = true;
-                                    add.add(t);
-                                }
-                                else if(dPrint)System.out.print(" <-- not fed");
-                            }
-                            if(fromLevel.getE() > levelEn && Math.abs(ratio - 1) < TOL){  
-                                if(dPrint)System.out.print(" - YES ");
-                                if(dPrint && prevEm != null && prevEm.getRI() != null)System.out.print(" feed pr:"+prevEm.getRI());
-                                if(dPrint && er.getRI() != null)System.out.print(" em.int:"+er.getRI());
-                                if(er.getRI() != null){
-                                    double feedingProb = -1;
-                                    if(prevEm != null && prevEm.getRI() != null)feedingProb = prevEm.getRI();
-                                    double ti = getTotalTransInt(fromLevel.getE(),d);
-                                    double transitionProb = er.getRI() / ti;
-                                    if(dPrint)System.out.print(" trans.prob:"+transitionProb+" (total int: "+ti);
-                                    double pr = (feedingProb/100d*depth);                                    
-                                    pr *= transitionProb;
-                                    if(feedingProb > 0){
-                                        if(dPrint)System.out.println(" < ADD");
-                                        Transition t = new Transition(fromLevel.getE(), toLevelEn, transitionProb, pr);
-                                        add.add(t);
-                                        getTransitionsToLevel(t.fromLevelEn, d, add, transitionProb*depth, iDepth +1, checkedEn);
-                                    }
-                                    else{
-                                        if(dPrint)System.out.println(" <-- Reachable");                                        
-                                        getTransitionsToLevel(fromLevel.getE(), d, add, transitionProb*depth, iDepth +1, checkedEn);
-                                    }                                                                        
-                                }                                    
-                            }
-                            if(dPrint)System.out.println("");
-                        }                        
-                    }
-                    else if(r instanceof BetaRecord
-                            || r instanceof ECRecord)prevEm = (EmissionRecord)r;
-                }
-            }            
-            if(r instanceof LevelRecord){
-                prev = r;
-                prevEm = null;
-            }            
-        }
-        checkedEn.add(levelEn);
-    }
-    
     /**
      * Store an alpha, beta or gamma emission line for a given emission record.
      * @param r the emission record.
@@ -527,9 +330,8 @@ public class ENSDFNuclibreEncoder {
             Map<String, NuclideDataset> map, 
             String daughterNuclideId){
         
-        List<Record> records = d.getRecords();
-        Record prev = null;
         TOL = 0.005;
+        TransitionGraph g = new TransitionGraph(d, TOL);
 //        if (d.getIdentificationRecord().getDSID().startsWith("234TH B- DECAY"))dPrint = true;
 //        if(d.getIdentificationRecord().getDSID().startsWith("131SB B- DECAY"))dPrint = true;        
 //        if (d.getIdentificationRecord().getDSID().startsWith("131I B- DECAY"))dPrint = true;
@@ -542,52 +344,27 @@ public class ENSDFNuclibreEncoder {
 //        if (d.getIdentificationRecord().getDSID().startsWith("111IN EC DECAY"))dPrint = true;
 //        if (d.getIdentificationRecord().getDSID().startsWith("96PD EC DECAY"))dPrint = true;
 //        else dPrint = false;
-        for(Record r: records){            
-            if(r instanceof EmissionRecord){
-                EmissionRecord er = (EmissionRecord)r;
-                String lineType = EncoderUtil.getLineType(er);
-                if(!lineType.equalsIgnoreCase("SF")){                              
-                    Double en = er.getE(); 
-                    LevelRecord fromLevel = null;
-                    if(lineType.equals("G")){
-                        if(prev instanceof LevelRecord){
-                            fromLevel = (LevelRecord)prev;                    
-                            if(fromLevel.getE() != null)fromLevel = EncoderUtil.getLevelFromAdoptedDataset(fromLevel.getE(),d);
-                        }
-                        if (fromLevel != null && en != null && fromLevel.getE() != null) {
-                            double toLevelEn = fromLevel.getE() - en;
-                            LevelRecord toLevel = EncoderUtil.getLevelFromAdoptedDataset(toLevelEn, d);
-                            if(  (toLevel != null && isMetastableLevel(toLevel, map.get(daughterNUCID)) && toLevel.getT() != null)
-                               ||(fromLevel != null && isMetastableLevel(fromLevel, map.get(daughterNUCID)) && fromLevel.getT() != null)
-                                    ){                                
-                                LevelRecord hlRec = fromLevel;
-                                if(hlRec.getT() == null || hlRec.getT().asSeconds() == 0)hlRec = fromLevel;
-                                boolean isDecayToMetastable = isMetastableLevel(hlRec, map.get(daughterNUCID));
-                                String MS = getStoredMSForHalflife(daughterNuclideId, hlRec.getT());                                
-                                if(MS != null && !MS.isEmpty() && isDecayToMetastable){
-                                    double branch = 0;       
-                                    List<Transition> toIsomer = new ArrayList<>();
-                                    HashSet<Double> checked = new HashSet<>();
-                                     getTransitionsToLevel(hlRec.getE(), d, toIsomer, 1d, 1, checked);
-                                    for(Transition t : toIsomer)branch += (t.prob);
-                                    d.setDaughterMSBraching(branch);
-                                    d.setMSDestination(MS);
-                                    if(dPrint){
-                                        System.out.println(" "+d.getIdentificationRecord().getDSID() + " IS DECAY TO ISOMER "+daughterNuclideId+MS+" With "+toIsomer.size()+" levels and branching "+(branch*100)+" %");
-                                        for(Transition t : toIsomer){
-                                            if(t.isDirect)System.out.println("-- directly to "+t.fromLevelEn+" ("+t.prob*100+" %)");
-                                            else System.out.println("-- "+t.fromLevelEn+" -> "+t.toLevelEn+" ("+t.prob*100+" %)");
-                                        }
-                                    }
-                                    return(MS);
-                                }
-                                
-                            }
-                        }                        
+        for(TransitionGraph.Edge e : g.getEdges()){
+            LevelRecord fromLevel = EncoderUtil.getLevelFromAdoptedDataset(e.getFromEnergy(),d);
+            if (fromLevel != null && fromLevel.getE() != null) {
+                double toLevelEn = fromLevel.getE() - e.getGammaEnergy();
+                LevelRecord toLevel = EncoderUtil.getLevelFromAdoptedDataset(toLevelEn, d);
+                if(  (toLevel != null && isMetastableLevel(toLevel, map.get(daughterNUCID)) && toLevel.getT() != null)
+                   ||(fromLevel != null && isMetastableLevel(fromLevel, map.get(daughterNUCID)) && fromLevel.getT() != null)
+                        ){                                
+                    LevelRecord hlRec = fromLevel;
+                    if(hlRec.getT() == null || hlRec.getT().asSeconds() == 0)hlRec = fromLevel;
+                    boolean isDecayToMetastable = isMetastableLevel(hlRec, map.get(daughterNUCID));
+                    String MS = isomers.findSymbol(daughterNuclideId, hlRec.getT());                                
+                    if(MS != null && !MS.isEmpty() && isDecayToMetastable){
+                        double branch = g.getPopulation(hlRec.getE());
+                        d.setDaughterMSBraching(branch);
+                        d.setMSDestination(MS);
+                        if(dPrint)System.out.println(" "+d.getIdentificationRecord().getDSID() + " IS DECAY TO ISOMER "+daughterNuclideId+MS+" With branching "+(branch*100)+" %");
+                        return(MS);
                     }
                 }
             }
-            if(r instanceof LevelRecord)prev = r;           
         }
         return(null);
     }    
@@ -609,7 +386,8 @@ public class ENSDFNuclibreEncoder {
     throws Exception{
         IdentificationRecord r = decay.getIdentificationRecord();
         String daughterNUCID = r.getNUCID();        
-        String dsid = r.getDSID();        
+        DecayId id = decay.getDecayId();
+        String dsid = id.getDSID();        
         if(!dsid.contains(":")){
             ParentRecord pr = decay.getParentRecord();            
             //If no parent record, bail.
@@ -617,10 +395,9 @@ public class ENSDFNuclibreEncoder {
             NormalizationRecord nr = decay.getNormalizationRecord();
             //If no normalization record, bail.
             if(nr == null)return(false);
-            String[] tok = dsid.split("\\s+");
             // if DSID is of form 216BI B- DECAY (x H+Y H), bail
-            if(tok.length > 5)return(false);
-            String parentNUCID = tok[0]; 
+            if(id.getTokenCount() > 5)return(false);
+            String parentNUCID = id.getParent(); 
             
             //make sure the daughters decays are stored.
             if(!daughterNUCID.equals(parentNUCID) && !daughterNUCID.equals(prevParent)){
@@ -633,7 +410,8 @@ public class ENSDFNuclibreEncoder {
             }
             
             
-            String type = tok[1];
+            String type = id.getType();
+            if(type == null)return(false);
             type = EncoderUtil.getNuclibreDecayType(type);             
             //If decay type is spontaneous fission, bail.
             if(type.equals("SF"))return(false);            
@@ -656,7 +434,7 @@ public class ENSDFNuclibreEncoder {
             }
             boolean isIT = type.equals("IT");            
             HalfLifeValue prHalf = pr.getT();            
-            String MS = checkMetastableLevel(isIT, prHalf, decayingLevel, dsid, parentNUCID, decayingLevelEnergy, parentDataset, c);
+            String MS = checkMetastableLevel(isIT, prHalf, decayingLevel, id, parentNUCID, decayingLevelEnergy, parentDataset, c);
             boolean isDecayFromIsomer = (MS != null && MS.length() > 0);
             
             Double Q = pr.getQP();            
@@ -748,69 +526,61 @@ public class ENSDFNuclibreEncoder {
     
     /**
      * Store x-rays into the database.
-     * @param x the x-rays to store.
+     * @param br branching ratio.
+     * @param sd the shell data of the element emitting the x-rays.
+     * @param x the intensities of the x-ray lines of the element.
      * @param parentId the parent nuclibre id of the decay producing the x-rays.
      * @param daughterId the daughter nuclibre id of the decay producing the x-rays.      
      * @param lineNum current line identifier.
      * @param c the connection to store the x-rays with.
      * @throws Exception 
      */
-    private void storeXRays(double br, XRay[] x, String parentId, String daughterId, int lineNum, Connection c) throws Exception{        
-        for(int i = 0;i < x.length;i++){
-            XRay r = x[i];
-            if(r.lineInt > 0){                
+    private void storeXRays(double br, ShellData sd, double[] x, String parentId, String daughterId, int lineNum, Connection c) throws Exception{        
+        for(int i = 0;i < sd.getLineCount();i++){
+            if(x[i] > 0){                
                  insert(c, "libLines",                            
                                 "nuclideId", parentId, "lineType", "X", "idLine", lineNum+"", "daughterNuclideId", daughterId,                            
-                                "energy", r.energy+"", "emissionProb", 
-                                ""+EncoderUtil.roundToSigDigits((r.lineInt*br)/100d,4,1), "designation", r.line);
+                                "energy", sd.energies[i]+"", "emissionProb", 
+                                ""+EncoderUtil.roundToSigDigits((x[i]*br)/100d,4,1), "designation", sd.designations[i]);
                  lineNum++;
             }
         }
     }
     
     /**
-     * Store x-rays from electron conversion and electron capture into the database.
-     * @param ic the internal conversion x-rays.
-     * @param ec the electron capture x-rays.
-      * @param parentId the parent nuclibre id of the decay producing the x-rays.
-     * @param daughterId the daughter nuclibre id of the decay producing the x-rays.      
-     * @param lineNum current line identifier.
-     * @param c the connection to store the x-rays with.
-     * @throws Exception 
+     * Get the shell data of the element of a nuclide.
+     * @param nuclideId the nuclibre nuclide id (e.g. <code>Ba-137m</code>).
+     * @return the shell data, or <code>null</code> if the element is not known.
      */
-    private void storeXRays(double br, XRay[] ic, XRay[] ec,  String parentId, String daughterId, int lineNum, Connection c) throws Exception{
-        if(ic == null){
-            storeXRays(br,ec,parentId, daughterId,lineNum, c);
-            return;
-        }
-        else if(ec == null){
-            storeXRays(br,ic, parentId, daughterId, lineNum, c);
-            return;
-        }
-        for(int i = 0;i < ic.length;i++){
-            ic[i].lineInt += ec[i].lineInt;
-        }
-        storeXRays(br,ic, parentId, daughterId, lineNum, c);
+    private ShellData getShellData(String nuclideId){
+        int dash = nuclideId.indexOf('-');
+        Integer Z = PeriodicTable.getZ(((dash >= 0) ? nuclideId.substring(0, dash) : nuclideId).toUpperCase());
+        if(Z == null)return(null);
+        if(Z > shellData.length-1)Z = shellData.length-1;
+        return(shellData[Z]);
     }
     
     /**
-     * Get x-rays resulting from electron capture.
+     * Get a buffer for the intensities of the x-ray lines of an element. The
+     * buffer is reused between decays, and cleared for the lines of the element.
+     * @param sd the shell data of the element.
+     * @return the buffer.
+     */
+    private double[] getXRayBuffer(ShellData sd){
+        if(xRayBuffer.length < sd.getLineCount())xRayBuffer = new double[sd.getLineCount()];
+        Arrays.fill(xRayBuffer, 0, sd.getLineCount(), 0d);
+        return(xRayBuffer);
+    }
+    
+    /**
+     * Add the x-rays resulting from electron capture.
      * @param captures the EC records corresponding to the electron captures
-     * @param parentId the parent nuclibre id of the decay producing the x-rays.
-     * @param daughterId the daughter nuclibre id of the decay producing the x-rays.      
-     * @return the x-rays.
+     * @param sd the shell data of the daughter element.
+     * @param x the intensities of the x-ray lines of the element to add to.
      */
-    private XRay[] getECXRays(List<ECRecord> captures, String daughter){
+    private void addECXRays(List<ECRecord> captures, ShellData sd, double[] x){
         double kCaps = 0;        
         double lCaps = 0;    
-        String[] elemAndWeight = daughter.split("-");
-        int Z = PeriodicTable.getZ(elemAndWeight[0].toUpperCase());
-        XRay[] ret = new XRay[shellData[Z].lines.size()];
-        double kFluorYield = shellData[Z].Wk;
-        double lFluorYield = shellData[Z].Wl;
-        double totalKInt = 0;
-        double totalLInt = 0;
-        
         for(int i = 0;i < captures.size();i++){
             ECRecord er = captures.get(i);            
             Double KCapProb = er.getCK();
@@ -825,53 +595,18 @@ public class ENSDFNuclibreEncoder {
             kCaps += KCapProb * IE;
             lCaps += LCapProb * IE;
         }
-        
-        for(int i = 0;i < shellData[Z].lines.size();i++){
-            ShellData.LineRecord r = shellData[Z].lines.get(i);            
-            if(r.line.startsWith("K")){
-                totalKInt += r.relInt ;
-            }
-            else if(r.line.startsWith("L")){
-                totalLInt += r.relInt;
-            }            
-        }
-        totalKInt = totalKInt / 100d;
-        totalLInt = totalLInt / 100d;        
-        
-        for(int i = 0;i < shellData[Z].lines.size();i++){
-            ShellData.LineRecord r = shellData[Z].lines.get(i);
-            if(r.line.startsWith("K")){
-                double lineInt = kFluorYield * kCaps * r.relInt / totalKInt / 100d ;
-                ret[i] = new XRay(r.line,r.energy,lineInt);
-            }
-            else if(r.line.startsWith("L")){
-                double lineInt = lFluorYield * lCaps * r.relInt / totalLInt / 100d;
-                ret[i] = new XRay(r.line,r.energy,lineInt);
-            }
-            else ret[i] = new XRay(r.line,r.energy,0d);
-        }
-        return(ret);
+        addXRays(sd, sd.Wk * kCaps, sd.Wl * lCaps, x);
     }
     
-     /**
-     * Get x-rays resulting from electron conversion in a gamma transition.
-     * @param captures the gamma records corresponding to the gamma transitions.
-     * @param parentId the parent nuclibre id of the decay producing the x-rays.
-     * @param daughterId the daughter nuclibre id of the decay producing the x-rays.      
-     * @return the x-rays.
+    /**
+     * Add the x-rays resulting from electron conversion in gamma transitions.
+     * @param gammaTrans the gamma records corresponding to the gamma transitions.
+     * @param sd the shell data of the daughter element.
+     * @param x the intensities of the x-ray lines of the element to add to.
      */
-    private XRay[] getICXRays(List<GammaRecord> gammaTrans, String daughter){
+    private void addICXRays(List<GammaRecord> gammaTrans, ShellData sd, double[] x){
         double kConvs = 0;        
         double lConvs = 0;                
-        String[] elemAndWeight = daughter.split("-");        
-        Integer Z = PeriodicTable.getZ(elemAndWeight[0].toUpperCase()); 
-        if(Z == null)return(null);
-        if(Z > shellData.length-1)Z = shellData.length-1;        
-        XRay[] ret = new XRay[shellData[Z].lines.size()];
-        double kFluorYield = shellData[Z].Wk;
-        double lFluorYield = shellData[Z].Wl;
-        double nKL = shellData[Z].nKL;
-        
         for(int i = 0;i < gammaTrans.size();i++){
             GammaRecord gr = gammaTrans.get(i);
             Double KconvCoeff = gr.getKc();
@@ -880,40 +615,24 @@ public class ENSDFNuclibreEncoder {
             if(LconvCoeff == null)LconvCoeff = 0d;            
             double apKL = KconvCoeff;// / (1 + totalConv);
             kConvs += apKL * gr.getRI();
-            lConvs += (apKL*nKL + LconvCoeff) * gr.getRI();            
+            lConvs += (apKL*sd.nKL + LconvCoeff) * gr.getRI();            
         }          
-        
-        kConvs *= kFluorYield;        
-        lConvs *= lFluorYield;
-        double totalKInt = 0;
-        double totalLInt = 0;        
-        
-        for(int i = 0;i < shellData[Z].lines.size();i++){
-            ShellData.LineRecord r = shellData[Z].lines.get(i);            
-            if(r.line.startsWith("K")){
-                totalKInt += r.relInt ;
-            }
-            else if(r.line.startsWith("L")){
-                totalLInt += r.relInt;
-            }
-        }
-        totalKInt = totalKInt / 100d;
-        totalLInt = totalLInt / 100d;        
-        
-        for(int i = 0;i < shellData[Z].lines.size();i++){
-            ShellData.LineRecord r = shellData[Z].lines.get(i);
-            if(r.line.startsWith("K")){
-                double lineInt = kConvs * r.relInt / totalKInt / 100d;
-                ret[i] = new XRay(r.line,r.energy,lineInt);
-            }
-            else if(r.line.startsWith("L")){
-                double lineInt = lConvs * r.relInt / totalLInt / 100d;
-                ret[i] = new XRay(r.line,r.energy,lineInt);
-            }
-            else ret[i] = new XRay(r.line,r.energy,0d);
-        }
-        return(ret);
-    }    
+        addXRays(sd, sd.Wk * kConvs, sd.Wl * lConvs, x);
+    }
+    
+    /**
+     * Add the intensities of the x-ray lines of an element for given total
+     * intensities of the K and L lines.
+     * @param sd the shell data of the element.
+     * @param k the total intensity of the K lines.
+     * @param l the total intensity of the L lines.
+     * @param x the intensities of the lines to add to.
+     */
+    private static void addXRays(ShellData sd, double k, double l, double[] x){
+        double[] kw = sd.kWeights;
+        double[] lw = sd.lWeights;
+        for(int i = 0;i < kw.length;i++)x[i] += k * kw[i] + l * lw[i];
+    }
     
     /**
      * Store annihilation photon and X-ray emissions from a given decay into the database.    
@@ -931,10 +650,14 @@ public class ENSDFNuclibreEncoder {
             List<ECRecord> captures, double cumIb, int lineNum, Connection c)
                 throws Exception{        
             cumIb = 0;        
-            XRay[] ic = null;
-            XRay[] ec = null;
             if(d.getMSDestination() != null)daughterNuclideId+= d.getMSDestination();
-            if(!gammaTrans.isEmpty())ic = getICXRays(gammaTrans, daughterNuclideId);            
+            ShellData sd = getShellData(daughterNuclideId);
+            double[] x = (sd != null) ? getXRayBuffer(sd) : null;
+            boolean hasXRays = false;
+            if(!gammaTrans.isEmpty() && sd != null){
+                addICXRays(gammaTrans, sd, x);
+                hasXRays = true;
+            }
             if(!captures.isEmpty()){
                 for(int i = 0;i < captures.size();i++){
                     ECRecord capture = captures.get(i);
@@ -952,9 +675,12 @@ public class ENSDFNuclibreEncoder {
                         lineNum++;
                     }
                 }
-                ec = getECXRays(captures, daughterNuclideId);                   
+                if(sd != null){
+                    addECXRays(captures, sd, x);
+                    hasXRays = true;
+                }
             }
-            if(ic != null || ec != null)storeXRays(br,ic,ec, parentNuclideId, daughterNuclideId, ++lineNum, c);            
+            if(hasXRays)storeXRays(br, sd, x, parentNuclideId, daughterNuclideId, ++lineNum, c);            
             return(lineNum);
     }
     
@@ -1073,8 +799,7 @@ public class ENSDFNuclibreEncoder {
     private int storeLibLines(String daughterNUCID, String daughterNuclideId, Decay decay, int lineNum, Map<String, NuclideDataset> map, 
              List<ECRecord> captures, List<GammaRecord> gammaTrans,
             Connection c) throws Exception{        
-            String DSID = decay.getIdentificationRecord().getDSID();            
-            String parentNUCID = DSID.split("\\s+")[0];
+            String parentNUCID = decay.getDecayId().getParent();
             String parentNuclideId = EncoderUtil.getNuclibNuclideId(parentNUCID);
             ParentRecord pr = decay.getParentRecord();
             double feedingLevelEnergy = -1;
@@ -1095,8 +820,9 @@ public class ENSDFNuclibreEncoder {
             String MS = null;
             if(decay.getMS() != null)MS = decay.getMS();
             boolean isDecayFromIsomer = (MS != null && MS.length() > 0);
+            String groundNuclideId = parentNuclideId;
             if(isDecayFromIsomer)parentNuclideId+=MS.toLowerCase();
-            if(isDecayFromIsomer && storedIsomers.contains(parentNuclideId+daughterNuclideId))return(lineNum);
+            if(isDecayFromIsomer && isomers.isStored(groundNuclideId, MS.toLowerCase(), daughterNuclideId))return(lineNum);
             List<Record> recs = decay.getRecords();
             LevelRecord previousLevel = null;            
             for(Record r : recs){
@@ -1109,7 +835,7 @@ public class ENSDFNuclibreEncoder {
                 }
             }            
             lineNum = storeAnnihilationsAndXrays(decay,1,gammaTrans, parentNuclideId, daughterNuclideId, captures, 1d, lineNum, c);
-            if(isDecayFromIsomer)storedIsomers.add(parentNuclideId+daughterNuclideId);
+            if(isDecayFromIsomer)isomers.setStored(groundNuclideId, MS.toLowerCase(), daughterNuclideId);
             return(lineNum);
     }
     
@@ -1176,8 +902,11 @@ public class ENSDFNuclibreEncoder {
      * @param p the parser whose contents to store.
      * @param nuclibConnection the database connection to use.
      * @throws java.lang.Exception if something goes wrong.
+     * @throws IllegalStateException if the parsed data has been compacted, see
+     * {@linkplain ENSDFParser#compact(fi.stuk.ensdf.MemoryArena) }.
      */
     public void store(ENSDFParser p, Connection nuclibConnection) throws Exception{
+        if(p.isCompacted())throw new IllegalStateException("Cannot encode compacted data");
         Map<String, NuclideDataset> datasets = p.getNuclideData();                
         List<NuclideDataset> dsList = new ArrayList<>();
         dsList.addAll(datasets.values());
@@ -1219,45 +948,4 @@ public class ENSDFNuclibreEncoder {
         }
         if(!Main.silent)System.out.println("Storing done.");
     }
-   
-    /** Utility class to store intermediate X-ray information. */
-    private class XRay{
-        /** Line designation. */
-        String line;
-        /** Line energy (keV). */
-        double energy;
-        /** Line intensity (%). */
-        double lineInt;
-        
-        /**
-         * Create a new XRay with given line designation, energy and intensity.
-         * @param line the designation.
-         * @param en the energy (keV).
-         * @param inte the intensity (%).
-         */
-        public XRay(String line, double en, double inte){
-            this.line = line;
-            this.energy = en;
-            this.lineInt = inte;
-        }
-    }
-    
-    private class Transition{
-        /** Source level en*/
-        double fromLevelEn = 0;
-        /** Destination level en*/
-        double toLevelEn = 0;
-        /** Transition intensity*/
-        double intens = 0;
-        /** Probability that this transition occurs*/
-        double prob = 0;
-        boolean isDirect = false;
-        
-        public Transition(double fromLevelEn, double toLevelEn, double intens, double prob){
-            this.fromLevelEn = fromLevelEn;
-            this.toLevelEn = toLevelEn;
-            this.intens = intens;
-            this.prob = prob;
-        }
-    }
 }
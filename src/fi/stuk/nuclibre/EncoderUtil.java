@@ -8,6 +8,7 @@ package fi.stuk.nuclibre;
 
 import fi.stuk.ensdf.AdoptedDataset;
 import fi.stuk.ensdf.Dataset;
+import fi.stuk.ensdf.DecayId;
 import fi.stuk.ensdf.NuclideDataset;
 import fi.stuk.ensdf.PeriodicTable;
 import fi.stuk.ensdf.record.AlphaRecord;
@@ -62,61 +63,34 @@ public class EncoderUtil {
     
     /**
      * Check if a given decay is from a metastable state according to the DSID.
-     * @param dsid the decay dataset id (ENSDF).
+     * @param id the decay id (parsed ENSDF DSID).
      * @param d the parent nuclide dataset.     
      * @return the halflife of the metastable state or <code>null</code> if
      * the decay is not from a metastable state.
      */
-    public static HalfLifeValue getMetastableSymbol(String dsid, NuclideDataset d){
-        String[] tok = dsid.split("\\s+");
-        int start = -1;
-        if(tok.length > 4  && dsid.contains("(") && dsid.contains(")")){
-            for(int j = 3;j < tok.length;j++){
-                String num = tok[j].replace("(", "");
-                if(num.length() > 0 && Character.isDigit(num.charAt(0))){
-                    start = j;
-                    break;
-                }
-            }
-            if(start == -1)return(null);
-        //if(tok.length > 4  && tok[3].contains("(") && tok[4].contains(")")){        
-                String sHalf = tok[start].replace("(","")+" "+tok[start+1].replace(")","");
-                HalfLifeValue hl = new HalfLifeValue();                
-                hl.parse(sHalf);
-                HalfLifeValue hl2 = EncoderUtil.getHalflife(d.getAdoptedDataset());               
-                if(hl2 == null)return(hl);
-                if(hl2.isStable() && !hl.isStable())return(hl);
-                double r = hl.asSeconds() / hl2.asSeconds();                
-                if(r < 1.05 && r > 0.95)return(null);
-                //if( r > 0.955 && r < 1.055 && s < 1)return(null);
-                if(Math.abs(hl.asSeconds() / hl2.asSeconds() - 1) < 0.001d)return(null);
-                return(hl);
-            }
-        else return(null);
+    public static HalfLifeValue getMetastableSymbol(DecayId id, NuclideDataset d){
+        HalfLifeValue hl = id.getHalfLife();
+        if(hl == null)return(null);
+        HalfLifeValue hl2 = EncoderUtil.getHalflife(d.getAdoptedDataset());               
+        if(hl2 == null)return(hl);
+        if(hl2.isStable() && !hl.isStable())return(hl);
+        double r = hl.asSeconds() / hl2.asSeconds();                
+        if(r < 1.05 && r > 0.95)return(null);
+        //if( r > 0.955 && r < 1.055 && s < 1)return(null);
+        if(Math.abs(hl.asSeconds() / hl2.asSeconds() - 1) < 0.001d)return(null);
+        return(hl);
     }
     
     /**
-     * Get a level record with given energy from an adopted dataset.
+     * Get a level record with given energy from an adopted dataset. The level
+     * nearest to the energy is returned, if it is within 1 keV of the energy.
      * @param energy the energy of the level to retrieve.
      * @param a the adopted levels dataset.
      * @return the level or <code>null</code> if no such level is found.
+     * @see Dataset#getNearestLevel(double, double) 
      */
     public static LevelRecord getLevelFromAdoptedDataset(double energy, Dataset a){
-        LevelRecord ret = null;
-        List<LevelRecord> g = a.getRecordsOfType(LevelRecord.class);        
-        double dist = Double.MAX_VALUE;
-        for(int i = 0;i < g.size();i++){
-            LevelRecord r = g.get(i);
-                if(r != null && r.getE() != null){
-                double de = Math.abs(r.getE()-energy);
-                if(de < dist){
-                    dist = de;
-                    ret = r;
-                }            
-            }
-        } 
-        if(dist < 1)return(ret);
-        else return(null);
+        return(a.getNearestLevel(energy, 1));
     }
     
         /**
@@ -0,0 +1,326 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.nuclibre;
+
+import fi.stuk.ensdf.PeriodicTable;
+import fi.stuk.ensdf.type.HalfLifeValue;
+import fi.stuk.ensdf.type.SymbolTable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * IsomerRegistry keeps track of the metastable states of nuclides stored as
+ * isomers, and of the isomers whose decay lines have been stored.
+ * <p>
+ * The isomers are kept by integer nuclide ids (<code>1000 * Z + A</code>, see
+ * {@linkplain #getKey(java.lang.String) }). The isomers of a nuclide are kept
+ * sorted by the logarithms of their half lives, so that the isomer with a
+ * given half life is found by a binary search, and the next free metastable
+ * symbol (<code>m2</code>, <code>m3</code>, ...) is kept up to date as
+ * isomers are added.
+ */
+public class IsomerRegistry {
+    /** Relative tolerance for the half life of an isomer when assigning symbols. */
+    static final double ASSIGN_TOL = 0.0005;
+
+    /** Relative tolerance for the half life of an isomer when looking up stored isomers. */
+    static final double LOOKUP_TOL = 0.05;
+
+    /** Number of bits of a nuclide id in a packed key. */
+    private static final int KEY_BITS = 18;
+
+    /** First nuclide id given to nuclides of unknown elements. */
+    private static final int OTHER_KEYS = 200000;
+
+    /** The isomers by nuclide id. */
+    private final HashMap<Integer, Isomers> isomers = new HashMap<>();
+
+    /** Nuclide ids given to nuclides of unknown elements. */
+    private final HashMap<String, Integer> otherKeys = new HashMap<>();
+
+    /** The metastable symbols, giving each symbol a small integer id. */
+    private final SymbolTable symbols = new SymbolTable();
+
+    /** Packed keys of the isomers whose decay lines have been stored, see
+     * {@linkplain #getStoredKey(java.lang.String, java.lang.String, java.lang.String) }. */
+    private final HashSet<Long> stored = new HashSet<>();
+
+    /**
+     * Isomers holds the isomers of a nuclide.
+     */
+    private static class Isomers {
+        /** The metastable symbols in the order of {@linkplain #logHl}. */
+        String[] ms = new String[0];
+
+        /** The half lives in the order of {@linkplain #logHl}. */
+        HalfLifeValue[] hl = new HalfLifeValue[0];
+
+        /** The natural logarithms of the half lives in seconds, sorted. Half
+         * lives which are not positive sort first as negative infinity. */
+        double[] logHl = new double[0];
+
+        /** The highest index of the metastable symbols (<code>m</code> being 1). */
+        int maxIndex = 1;
+
+        /**
+         * Find the position of a metastable symbol.
+         * @param MS the symbol.
+         * @return the position, or <code>-1</code> if there is no such isomer.
+         */
+        int indexOf(String MS){
+            for(int i = 0;i < ms.length;i++)if(ms[i].equals(MS))return(i);
+            return(-1);
+        }
+
+        /**
+         * Add an isomer, replacing the isomer with the same symbol.
+         * @param MS the metastable symbol.
+         * @param h the half life.
+         */
+        void put(String MS, HalfLifeValue h){
+            int old = indexOf(MS);
+            if(old >= 0)remove(old);
+            double l = log(h);
+            int i = lowerBound(logHl, l);
+            while(i < logHl.length && !(logHl[i] > l))i++;
+            ms = insert(ms, i, MS);
+            hl = insert(hl, i, h);
+            double[] nl = new double[logHl.length + 1];
+            System.arraycopy(logHl, 0, nl, 0, i);
+            nl[i] = l;
+            System.arraycopy(logHl, i, nl, i + 1, logHl.length - i);
+            logHl = nl;
+            int n = getIndex(MS);
+            if(n > maxIndex)maxIndex = n;
+        }
+
+        /**
+         * Remove the isomer at a position.
+         * @param i the position.
+         */
+        void remove(int i){
+            String[] m = new String[ms.length - 1];
+            HalfLifeValue[] h = new HalfLifeValue[m.length];
+            double[] l = new double[m.length];
+            for(int j = 0, k = 0;j < ms.length;j++){
+                if(j == i)continue;
+                m[k] = ms[j];
+                h[k] = hl[j];
+                l[k++] = logHl[j];
+            }
+            ms = m;
+            hl = h;
+            logHl = l;
+        }
+
+        /**
+         * Find the isomer with the half life nearest to a given half life,
+         * within a given relative tolerance.
+         * @param h the half life.
+         * @param tol the tolerance.
+         * @return the symbol of the isomer, or <code>null</code> if there is
+         * none within the tolerance.
+         */
+        String find(HalfLifeValue h, double tol){
+            double s = h.asSeconds();
+            if(!(s > 0) || Double.isInfinite(s))return(null);
+            double l = Math.log(s);
+            String ret = null;
+            double best = Double.MAX_VALUE;
+            for(int i = lowerBound(logHl, l + Math.log(1 - tol) - 1e-9);i < logHl.length && logHl[i] <= l + Math.log(1 + tol) + 1e-9;i++){
+                double r = hl[i].asSeconds() / s;
+                if(!(r > 1 - tol && r < 1 + tol))continue;
+                double d = Math.abs(logHl[i] - l);
+                if(d < best){
+                    best = d;
+                    ret = ms[i];
+                }
+            }
+            return(ret);
+        }
+    }
+
+    /**
+     * Get the index of a metastable symbol, i.e. the number following the
+     * letter (<code>2</code> for <code>m2</code>), <code>1</code> for a
+     * symbol without a number.
+     * @param MS the metastable symbol.
+     * @return the index.
+     */
+    static int getIndex(String MS){
+        int i = MS.length();
+        while(i > 0 && Character.isDigit(MS.charAt(i - 1)))i--;
+        if(i == MS.length() || MS.length() - i > 9)return(1);
+        return(Integer.parseInt(MS.substring(i)));
+    }
+
+    /**
+     * Get the natural logarithm of a half life in seconds.
+     * @param h the half life.
+     * @return the logarithm, or negative infinity if the half life is not
+     * positive.
+     */
+    private static double log(HalfLifeValue h){
+        double s = (h != null) ? h.asSeconds() : 0;
+        return((s > 0) ? Math.log(s) : Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Get the position of the first value at or above a given value in a
+     * sorted array.
+     * @param a the array.
+     * @param v the value.
+     * @return the position.
+     */
+    private static int lowerBound(double[] a, double v){
+        int lo = 0;
+        int hi = a.length;
+        while(lo < hi){
+            int m = (lo + hi) >>> 1;
+            if(a[m] < v)lo = m + 1;
+            else hi = m;
+        }
+        return(lo);
+    }
+
+    /**
+     * Insert a value into a copy of an array.
+     * @param <T> type of the values.
+     * @param a the array.
+     * @param i the position to insert at.
+     * @param v the value.
+     * @return the new array.
+     */
+    private static <T> T[] insert(T[] a, int i, T v){
+        T[] n = Arrays.copyOf(a, a.length + 1);
+        System.arraycopy(a, i, n, i + 1, a.length - i);
+        n[i] = v;
+        return(n);
+    }
+
+    /**
+     * Get the integer id of a nuclide, <code>1000 * Z + A</code>. Nuclides of
+     * elements unknown to {@linkplain PeriodicTable} are given ids from
+     * {@value #OTHER_KEYS} upwards.
+     * @param nuclideId the nuclib nuclide id (e.g. <code>Cs-137</code>).
+     * @return the id.
+     */
+    public int getKey(String nuclideId){
+        int dash = nuclideId.indexOf('-');
+        Integer Z = (dash > 0) ? PeriodicTable.getZ(nuclideId.substring(0, dash).toUpperCase()) : null;
+        if(Z != null && Z < 200){
+            try{
+                int A = Integer.parseInt(nuclideId.substring(dash + 1));
+                if(A >= 0 && A < 1000)return(1000 * Z + A);
+            }
+            catch(NumberFormatException ex){
+            }
+        }
+        Integer k = otherKeys.get(nuclideId);
+        if(k == null){
+            k = OTHER_KEYS + otherKeys.size();
+            otherKeys.put(nuclideId, k);
+        }
+        return(k);
+    }
+
+    /**
+     * Get the metastable symbol for an isomer of a nuclide with given half
+     * life. If an isomer of the nuclide has the half life (within 0.05 %), its
+     * symbol is returned. Otherwise the next free symbol is returned:
+     * <code>m</code> for the first isomer of a nuclide, then <code>m2</code>,
+     * <code>m3</code> and so on.
+     * @param nuclideId the nuclib nuclide id.
+     * @param h the half life.
+     * @return the metastable symbol.
+     */
+    public String getSymbol(String nuclideId, HalfLifeValue h){
+        Isomers m = isomers.get(getKey(nuclideId));
+        if(m == null)return("m");
+        String ms = m.find(h, ASSIGN_TOL);
+        if(ms != null)return(ms);
+        return("m"+(m.maxIndex + 1));
+    }
+
+    /**
+     * Get the metastable symbol of a stored isomer of a nuclide with given
+     * half life (within 5 %).
+     * @param nuclideId the nuclib nuclide id.
+     * @param h the half life.
+     * @return the metastable symbol, or <code>null</code> if the nuclide has
+     * no such isomer.
+     */
+    public String findSymbol(String nuclideId, HalfLifeValue h){
+        Isomers m = isomers.get(getKey(nuclideId));
+        if(m == null)return(null);
+        return(m.find(h, LOOKUP_TOL));
+    }
+
+    /**
+     * See if a nuclide has an isomer with given metastable symbol.
+     * @param nuclideId the nuclib nuclide id.
+     * @param MS the metastable symbol.
+     * @return <code>true</code> if the nuclide has that isomer, <code>false</code>
+     * otherwise.
+     */
+    public boolean contains(String nuclideId, String MS){
+        Isomers m = isomers.get(getKey(nuclideId));
+        return(m != null && m.indexOf(MS) >= 0);
+    }
+
+    /**
+     * Add an isomer of a nuclide.
+     * @param nuclideId the nuclib nuclide id.
+     * @param MS the metastable symbol.
+     * @param hl the half life.
+     */
+    public void put(String nuclideId, String MS, HalfLifeValue hl){
+        int k = getKey(nuclideId);
+        Isomers m = isomers.get(k);
+        if(m == null){
+            m = new Isomers();
+            isomers.put(k, m);
+        }
+        m.put(MS, hl);
+    }
+
+    /**
+     * Get the key of the lines of an isomer decaying to a daughter nuclide,
+     * packing the ids of the nuclides and of the metastable symbol into a
+     * long.
+     * @param parentNuclideId the nuclib nuclide id of the parent.
+     * @param MS the metastable symbol of the parent.
+     * @param daughterNuclideId the nuclib nuclide id of the daughter.
+     * @return the key.
+     */
+    private long getStoredKey(String parentNuclideId, String MS, String daughterNuclideId){
+        return(((long)symbols.id(MS) << (2 * KEY_BITS)) | ((long)getKey(parentNuclideId) << KEY_BITS) | getKey(daughterNuclideId));
+    }
+
+    /**
+     * See if the lines of an isomer decaying to a daughter nuclide have been
+     * stored.
+     * @param parentNuclideId the nuclib nuclide id of the parent.
+     * @param MS the metastable symbol of the parent.
+     * @param daughterNuclideId the nuclib nuclide id of the daughter.
+     * @return <code>true</code> if the lines have been stored.
+     */
+    public boolean isStored(String parentNuclideId, String MS, String daughterNuclideId){
+        return(stored.contains(getStoredKey(parentNuclideId, MS, daughterNuclideId)));
+    }
+
+    /**
+     * Mark the lines of an isomer decaying to a daughter nuclide stored.
+     * @param parentNuclideId the nuclib nuclide id of the parent.
+     * @param MS the metastable symbol of the parent.
+     * @param daughterNuclideId the nuclib nuclide id of the daughter.
+     */
+    public void setStored(String parentNuclideId, String MS, String daughterNuclideId){
+        stored.add(getStoredKey(parentNuclideId, MS, daughterNuclideId));
+    }
+}
@@ -7,15 +7,15 @@
 package fi.stuk.nuclibre;
 
 import fi.stuk.ensdf.ENSDFParser;
+import fi.stuk.ensdf.ENSDFSnapshot;
+import fi.stuk.ensdf.PatchReport;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.function.Consumer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.cli.CommandLine;
@@ -45,8 +45,8 @@ public class Main {
     /** Command line option specification. */
     private static final Options options = new Options();
     
-    /** The ENSDF file used for initial import. */    
-    private static File ensdfFile = null;
+    /** The ENSDF files, directories or zip files used for initial import. */    
+    private static List<File> ensdfFiles = null;
     
     /** The patch direcotory. */
     private static String patches = null;            
@@ -56,6 +56,21 @@ public class Main {
     
     /** Patch data source. */
     private static String patchSource = null;
+    
+    /** Number of threads used for parsing the ENSDF file. */
+    private static int nThreads = 1;
+    
+    /** A flag indicating whether record fields are decoded lazily. */
+    private static boolean lazy = false;
+    
+    /** The NUCIDs and mass numbers whose datasets are parsed, or <code>null</code> for all. */
+    private static List<String> nuclides = null;
+    
+    /** The snapshot file caching the parsed and patched data, or <code>null</code> for none. */
+    private static File snapshotFile = null;
+    
+    /** A flag indicating whether data not needed for encoding is skipped while parsing. */
+    private static boolean selective = false;
 
     private static OutputDialect outputDialect = new SQLiteOutputDialect();
 
@@ -79,7 +94,12 @@ public class Main {
         options.addOption("b", "browse", true, "Browse the data for <arg> in the sqlite file.");
         options.addOption("P","patch-dir", true, "Patch the parsed input with files from a specified directory. ");
         options.addOption("S","patch-source", true, "Specify the source for patch directory data.");
-        options.addOption("e","ensdf-file", true, "Specify the input ENSDF file");
+        options.addOption("e","ensdf-file", true, "Specify the input ENSDF file, a directory containing the ensdf.* files of the ENSDF distribution, or the ENSDF distribution zip file. Can be given several times.");
+        options.addOption("j","threads", true, "Number of threads used for parsing the ENSDF file. The default is 1.");
+        options.addOption("l","lazy", false, "Decode record fields not needed for encoding lazily. Faster, but records with such malformed fields are kept instead of dropped.");
+        options.addOption("n","nuclides", true, "Parse only the datasets of the given comma separated NUCIDs (e.g. 137CS) and mass numbers (e.g. 137), using an index stored next to the ENSDF file.");
+        options.addOption("c","cache", true, "Cache the parsed and patched data in the given snapshot file, and read the data from it instead of parsing when the input files, patch files and options are unchanged.");
+        options.addOption("u","skip-unused", false, "Skip the records of reaction datasets and comment records while parsing, as they are not encoded.");
         options.addOption("d", "dialect", true, "Specify output SQL dialect sqlite, csv, postgres or postgres-compat. The default is sqlite.");
     }
     
@@ -111,13 +131,48 @@ public class Main {
         if(cmd.hasOption("s"))silent = true;
         if(cmd.hasOption("w"))printExceptions = true;
         if(cmd.hasOption("e")){
-            String value = cmd.getOptionValue("e");
-            if(value == null){
+            String[] values = cmd.getOptionValues("e");
+            if(values == null){
                 System.err.println("Error: ENSDF file not specified with option e.");
                 printUsage(-3);
             }
-            ensdfFile = new File(value);
+            ensdfFiles = new ArrayList<>();
+            for(String value : values)ensdfFiles.add(new File(value));
         }        
+        if(cmd.hasOption("j")){
+            String value = cmd.getOptionValue("j");
+            try{
+                nThreads = Integer.parseInt(value);
+            }
+            catch(NumberFormatException ex){
+                System.err.println("Error: invalid number of threads "+value);
+                printUsage(-7);
+            }
+        }
+        if(cmd.hasOption("l"))lazy = true;
+        if(cmd.hasOption("u"))selective = true;
+        if(cmd.hasOption("c")){
+            String value = cmd.getOptionValue("c");
+            if(value == null){
+                System.err.println("Error: snapshot file not specified with option c.");
+                printUsage(-9);
+            }
+            snapshotFile = new File(value);
+        }
+        if(cmd.hasOption("n")){
+            String value = cmd.getOptionValue("n");
+            if(value == null){
+                System.err.println("Error: nuclides not specified with option n.");
+                printUsage(-8);
+            }
+            nuclides = Arrays.asList(value.split(","));
+            for(File f : ensdfFiles != null ? ensdfFiles : new ArrayList<File>()){
+                if(f.isDirectory() || f.getName().toLowerCase().endsWith(".zip")){
+                    System.err.println("Error: option n requires plain ENSDF files, not "+f);
+                    printUsage(-8);
+                }
+            }
+        }
         if(cmd.hasOption("b")){
             String value = cmd.getOptionValue("b");
             if(value == null){
@@ -168,27 +223,25 @@ public class Main {
     }
         
     /**
-     * Patch the data with files from a given directory.
+     * Patch the data with files from a given directory. The files are parsed
+     * concurrently with {@linkplain #nThreads} threads and applied in the
+     * order of their names, and a summary of patching is printed once done.
      * @param p the parser whose data to patch.
      * @param dir the directory.
      * @throws IOException 
      */
     private static void patchDir(ENSDFParser p, String dir) throws IOException{
-        final ENSDFParser parser = p;        
-          Files.list(Paths.get(dir))             
-         .forEach(new Consumer<Path>(){
-                @Override
-                public void accept(Path t) {
-                    try {                    
-                        File f = t.toFile();
-                        FileReader fr = new FileReader(f);
-                        parser.patch(f.getName(), fr, (int)f.length(), patchSource);               
-                    } catch (Exception ex) {
-                        Logger.getLogger(Main.class.getName()).log(Level.SEVERE,
-                                "Error during patching.", ex);
-                    }
-                }
-            });
+        File[] list = new File(dir).listFiles();
+        if(list == null)throw new IOException("Cannot list directory "+dir);
+        Arrays.sort(list);
+        List<File> files = new ArrayList<>();
+        for(File f : list){
+            if(f.isFile())files.add(f);
+        }
+        PatchReport report = p.patch(files, patchSource, nThreads);
+        if(!Main.silent)System.out.println(report.getSummary());
+        else if(!report.getFailures().isEmpty())
+            Logger.getLogger(Main.class.getName()).log(Level.SEVERE, "Error during patching. "+report.getSummary());
     }
     
     /** Entry point of the application.
@@ -208,12 +261,30 @@ public class Main {
             Connection c = null;
             if (!Main.browse && !Main.testRun) c = outputDialect.createNuclibDatabase(sqliteFile);
             else c = outputDialect.getDatabaseConnection(sqliteFile);
-            if(ensdfFile != null){
-               FileReader fr = new FileReader(ensdfFile);
+            if(ensdfFiles != null){
                ENSDFParser p = new ENSDFParser();
-               p.parse(ensdfFile.getName(),fr, (int)ensdfFile.length(),"ENSDF");
-               fr.close();                    
-               if(patches != null)patchDir(p, patches);
+               p.setLazy(lazy);
+               p.setSelective(selective);
+               String key = null;
+               if(snapshotFile != null)key = ENSDFSnapshot.createKey(ensdfFiles, patches, patchSource, "lazy="+lazy+",selective="+selective+",nuclides="+nuclides);
+               if(key == null || !ENSDFSnapshot.read(snapshotFile, key, p)){
+                   if(nuclides == null)p.parse(ensdfFiles, "ENSDF", nThreads);
+                   else{
+                       for(File f : ensdfFiles)p.parse(f, "ENSDF", nuclides);
+                   }
+                   if(patches != null)patchDir(p, patches);
+                   if(!Main.silent && p.getErrors().getCount() > 0)System.out.println(p.getErrors().getSummary());
+                   if(key != null){
+                       try{
+                           ENSDFSnapshot.write(snapshotFile, key, p);
+                       }
+                       catch(IOException ex){
+                           //The snapshot is only a cache, so continue encoding without it
+                           Logger.getLogger(Main.class.getName()).log(Level.WARNING, "Cannot write snapshot "+snapshotFile, ex);
+                           snapshotFile.delete();
+                       }
+                   }
+               }
                if(!Main.browse){
                     ENSDFNuclibreEncoder encoder = new ENSDFNuclibreEncoder(outputDialect);
                     encoder.store(p, c);
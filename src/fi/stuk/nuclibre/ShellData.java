@@ -21,7 +21,10 @@ import java.util.logging.Logger;
  * should reside in the working directory.
  * <p>
  * Shell data for different elements is obtained by using the static method 
- * {@linkplain #parse() }.
+ * {@linkplain #parse() }. The energies of the x-ray lines and their relative
+ * intensities normalised within the K and L lines are also kept in arrays,
+ * so that the x-ray intensities of a decay can be computed without going
+ * through the lines again.
  * @author Tero Karhunen
  */
 public class ShellData {
@@ -34,6 +37,20 @@ public class ShellData {
     /** The x-ray lines of this element. */
     List<LineRecord> lines = new ArrayList<>();
     
+    /** The designations of the x-ray lines, in the order of {@linkplain #lines}. */
+    String[] designations = new String[0];
+    
+    /** The energies of the x-ray lines in keV, in the order of {@linkplain #lines}. */
+    double[] energies = new double[0];
+    
+    /** The relative intensities of the K lines normalised by the total intensity
+     of the K lines (<code>0</code> for the other lines). */
+    double[] kWeights = new double[0];
+    
+    /** The relative intensities of the L lines normalised by the total intensity
+     of the L lines (<code>0</code> for the other lines). */
+    double[] lWeights = new double[0];
+    
     /** The K-shell fluorescence yield of this element. */
     double Wk = 0;
     
@@ -129,6 +146,41 @@ public class ShellData {
             lines.add(r);
     }
     
+    /**
+     * Fill the line tables ({@linkplain #designations}, {@linkplain #energies},
+     * {@linkplain #kWeights} and {@linkplain #lWeights}) from the parsed lines.
+     */
+    private void buildLineTables(){
+        int n = lines.size();
+        designations = new String[n];
+        energies = new double[n];
+        kWeights = new double[n];
+        lWeights = new double[n];
+        double totalKInt = 0;
+        double totalLInt = 0;
+        for(LineRecord r : lines){
+            if(r.line.startsWith("K"))totalKInt += r.relInt;
+            else if(r.line.startsWith("L"))totalLInt += r.relInt;
+        }
+        totalKInt = totalKInt / 100d;
+        totalLInt = totalLInt / 100d;
+        for(int i = 0;i < n;i++){
+            LineRecord r = lines.get(i);
+            designations[i] = r.line;
+            energies[i] = r.energy;
+            if(r.line.startsWith("K"))kWeights[i] = r.relInt / totalKInt / 100d;
+            else if(r.line.startsWith("L"))lWeights[i] = r.relInt / totalLInt / 100d;
+        }
+    }
+    
+    /**
+     * Get the number of x-ray lines of this element.
+     * @return the number of lines.
+     */
+    public int getLineCount(){
+        return(designations.length);
+    }
+    
     /**
      * Parse the data files <code>Table1.txt</code> and <code>Table2.txt</code>.
      * <p>
@@ -146,6 +198,7 @@ public class ShellData {
         for(int i = 0;i < data.length;i++)data[i] = new ShellData(i);        
         parseFluorescenceYields(file1, data);        
         parseEnergiesAndYields(file2, data);
+        for(ShellData d : data)d.buildLineTables();
         return(data);
     }                 
     
@@ -0,0 +1,442 @@
+/*
+* Copyright (c) 2023 Radiation and Nuclear Safety Authority (STUK)
+*
+* Use of this source code is governed by an MIT-style
+* license that can be found in the LICENSE file.
+*/
+package fi.stuk.nuclibre;
+
+import fi.stuk.ensdf.Decay;
+import fi.stuk.ensdf.record.BetaRecord;
+import fi.stuk.ensdf.record.ECRecord;
+import fi.stuk.ensdf.record.EmissionRecord;
+import fi.stuk.ensdf.record.GammaRecord;
+import fi.stuk.ensdf.record.LevelRecord;
+import fi.stuk.ensdf.record.Record;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * TransitionGraph holds the gamma transitions between the levels of a decay,
+ * collected from the records of the decay in one pass.
+ * <p>
+ * The levels of the decay are the nodes of the graph, and the gamma records
+ * following a level record are the edges from the level, weighted by their
+ * relative intensities. Each level holds the intensity of the beta or EC
+ * records feeding it, and the total intensity of the gammas leaving it (levels
+ * closer to each other than the tolerance of the graph are considered the same
+ * level). An edge ends at the level nearest to the level energy less the gamma
+ * energy, if it is below the level the edge leaves and within the tolerance
+ * of the graph (relative, or in keV near zero energy).
+ * <p>
+ * Since the edges always lead to lower levels, the levels are in topological
+ * order by their energies. The population of each level, i.e. the probability
+ * of the decay ending up on the level either directly or by gamma cascades
+ * from the levels above, is computed in one pass from the highest level down
+ * (see {@linkplain #getPopulation(double) }).
+ */
+public class TransitionGraph {
+    /** The decay. */
+    private final Decay decay;
+
+    /** Tolerance for the energies of the same level (keV, and relative for
+     * the energies transitions end at). */
+    private final double tol;
+
+    /** The edges in the order of the records of the decay. */
+    private final Edge[] edges;
+
+    /** The edges sorted by the energy of the level they leave. */
+    private final Edge[] byFrom;
+
+    /** The nodes sorted by energy. */
+    private final Node[] nodes;
+
+    /** Flag indicating that the populations of the levels have been computed. */
+    private boolean populated = false;
+
+    /**
+     * Node is a level of the decay. Level records of equal energies share a node.
+     */
+    public static class Node {
+        /** The energy of the level (keV). */
+        final double energy;
+
+        /** The total relative intensity of the gammas leaving the level. */
+        double total = 0;
+
+        /** The intensity of the beta and EC records feeding the level (%). */
+        double feeding = 0;
+
+        /** The edges ending at the level, in the order of the records. */
+        final List<Edge> in = new ArrayList<>();
+
+        /** Probability of the decay populating the level. */
+        double population = 0;
+
+        /**
+         * Create a node.
+         * @param energy the energy of the level (keV).
+         */
+        Node(double energy){
+            this.energy = energy;
+        }
+
+        /**
+         * @return the energy of the level (keV).
+         */
+        public double getEnergy(){
+            return(energy);
+        }
+
+        /**
+         * Get the total relative intensity of the gammas leaving the level,
+         * or a level within the tolerance of the graph from it.
+         * @return the total intensity.
+         */
+        public double getTotalIntensity(){
+            return(total);
+        }
+
+        /**
+         * Get the intensity of the beta and EC records feeding the level
+         * directly.
+         * @return the feeding intensity (%).
+         */
+        public double getFeeding(){
+            return(feeding);
+        }
+    }
+
+    /**
+     * Edge is a gamma transition from a level.
+     */
+    public static class Edge {
+        /** Position of the gamma record among the edges of the decay. */
+        final int index;
+
+        /** The level record preceding the gamma record. */
+        final LevelRecord level;
+
+        /** The node of the level. */
+        Node from;
+
+        /** The node of the level the transition ends at, or <code>null</code>. */
+        Node to;
+
+        /** Energy of the level (keV). */
+        final double fromEn;
+
+        /** Energy of the gamma (keV). */
+        final double gammaEn;
+
+        /** Energy the transition ends at, i.e. the level energy less the gamma energy (keV). */
+        final double toEn;
+
+        /** Relative intensity of the gamma, or <code>null</code>. */
+        final Double intensity;
+
+        /**
+         * Create an edge.
+         * @param index position of the gamma record among the edges.
+         * @param level the level record preceding the gamma record.
+         * @param gammaEn energy of the gamma (keV).
+         * @param intensity relative intensity of the gamma.
+         */
+        Edge(int index, LevelRecord level, double gammaEn, Double intensity){
+            this.index = index;
+            this.level = level;
+            this.fromEn = level.getE();
+            this.gammaEn = gammaEn;
+            this.toEn = fromEn - gammaEn;
+            this.intensity = intensity;
+        }
+
+        /**
+         * @return the level record preceding the gamma record.
+         */
+        public LevelRecord getLevel(){
+            return(level);
+        }
+
+        /**
+         * @return the node of the level the transition leaves from.
+         */
+        public Node getFrom(){
+            return(from);
+        }
+
+        /**
+         * @return the node of the level the transition ends at, or
+         * <code>null</code> if there is no level at the energy.
+         */
+        public Node getTo(){
+            return(to);
+        }
+
+        /**
+         * @return the energy of the level the transition leaves from (keV).
+         */
+        public double getFromEnergy(){
+            return(fromEn);
+        }
+
+        /**
+         * @return the energy of the gamma (keV).
+         */
+        public double getGammaEnergy(){
+            return(gammaEn);
+        }
+
+        /**
+         * @return the energy the transition ends at (keV).
+         */
+        public double getToEnergy(){
+            return(toEn);
+        }
+
+        /**
+         * @return the relative intensity of the gamma, or <code>null</code>.
+         */
+        public Double getIntensity(){
+            return(intensity);
+        }
+
+        /**
+         * Get the probability of the transition among the transitions leaving
+         * its level.
+         * @return the probability, or <code>0</code> if the intensity is not given.
+         */
+        public double getProbability(){
+            if(intensity == null || !(from.total > 0))return(0);
+            return(intensity / from.total);
+        }
+    }
+
+    /** Compares edges by the energies of the levels they leave. */
+    private static final Comparator<Edge> FROM_ORDER = new Comparator<Edge>(){
+        @Override
+        public int compare(Edge o1, Edge o2){
+            return(Double.compare(o1.fromEn, o2.fromEn));
+        }
+    };
+
+    /** Compares edges by the order of their records. */
+    private static final Comparator<Edge> RECORD_ORDER = new Comparator<Edge>(){
+        @Override
+        public int compare(Edge o1, Edge o2){
+            return(Integer.compare(o1.index, o2.index));
+        }
+    };
+
+    /**
+     * Create the transition graph of a decay. A gamma record is an edge if it
+     * follows a level record, and both the gamma and the level have an energy.
+     * The feeding of a level is given by the last beta or EC record following
+     * its level record.
+     * @param d the decay.
+     * @param tol tolerance for the energies of the same level.
+     */
+    public TransitionGraph(Decay d, double tol){
+        this.decay = d;
+        this.tol = tol;
+        List<Edge> e = new ArrayList<>();
+        List<LevelRecord> levels = new ArrayList<>();
+        List<Double> feedings = new ArrayList<>();
+        LevelRecord level = null;
+        for(Record r : d.getRecords()){
+            if(r instanceof GammaRecord){
+                GammaRecord g = (GammaRecord)r;
+                Double en = g.getE();
+                if(level != null && en != null && level.getE() != null)
+                    e.add(new Edge(e.size(), level, en, g.getRI()));
+            }
+            else if((r instanceof BetaRecord || r instanceof ECRecord) && level != null && level.getE() != null)
+                feedings.set(feedings.size() - 1, ((EmissionRecord)r).getRI());
+            else if(r instanceof LevelRecord){
+                level = (LevelRecord)r;
+                if(level.getE() == null)continue;
+                levels.add(level);
+                feedings.add(null);
+            }
+        }
+        edges = e.toArray(new Edge[e.size()]);
+        byFrom = edges.clone();
+        Arrays.sort(byFrom, FROM_ORDER);
+        nodes = buildNodes(levels, feedings);
+        linkEdges();
+    }
+
+    /**
+     * Create a node for each level energy, add up the feedings of the level
+     * records, and sum the intensities of the gammas leaving the levels in the
+     * order of the records.
+     * @param levels the level records with energies.
+     * @param feedings the feeding intensities of the level records.
+     * @return the nodes sorted by energy.
+     */
+    private Node[] buildNodes(List<LevelRecord> levels, List<Double> feedings){
+        double[] en = new double[levels.size()];
+        for(int i = 0;i < en.length;i++)en[i] = levels.get(i).getE();
+        Arrays.sort(en);
+        List<Node> n = new ArrayList<>();
+        for(int i = 0;i < en.length;i++){
+            if(i == 0 || en[i] != en[i - 1])n.add(new Node(en[i]));
+        }
+        Node[] ret = n.toArray(new Node[n.size()]);
+        for(int i = 0;i < levels.size();i++){
+            Double f = feedings.get(i);
+            if(f != null)find(ret, levels.get(i).getE()).feeding += f;
+        }
+        for(Node node : ret){
+            List<Edge> out = window(node.energy - tol, node.energy + tol);
+            Collections.sort(out, RECORD_ORDER);
+            for(Edge o : out){
+                if(Math.abs(o.fromEn - node.energy) < tol && o.intensity != null)node.total += o.intensity;
+            }
+        }
+        return(ret);
+    }
+
+    /**
+     * Link the edges to the nodes they leave and end at.
+     */
+    private void linkEdges(){
+        for(Edge e : edges){
+            e.from = find(nodes, e.fromEn);
+            e.to = findTarget(e);
+            if(e.to != null)e.to.in.add(e);
+        }
+    }
+
+    /**
+     * Find the node of the level an edge ends at, i.e. the level below the
+     * level the edge leaves nearest to the energy the edge ends at, within
+     * the tolerance of the graph relative to the energy. Near zero energy,
+     * e.g. for the ground state, the tolerance is also allowed in keV.
+     * @param e the edge.
+     * @return the node, or <code>null</code> if no level is near the energy.
+     */
+    private Node findTarget(Edge e){
+        double slack = 2 * tol * Math.abs(e.toEn) + tol;
+        Node ret = null;
+        for(int i = lowerBound(nodes, e.toEn - slack);i < nodes.length && nodes[i].energy <= e.toEn + slack;i++){
+            Node n = nodes[i];
+            if(n.energy >= e.fromEn)continue;
+            if(!(Math.abs(n.energy / e.toEn - 1) < tol) && !(Math.abs(n.energy - e.toEn) < tol))continue;
+            if(ret == null || Math.abs(n.energy - e.toEn) < Math.abs(ret.energy - e.toEn))ret = n;
+        }
+        return(ret);
+    }
+
+    /**
+     * Get the position of the first node at or above an energy.
+     * @param n the nodes sorted by energy.
+     * @param energy the energy (keV).
+     * @return the position.
+     */
+    private static int lowerBound(Node[] n, double energy){
+        int a = 0;
+        int b = n.length;
+        while(a < b){
+            int m = (a + b) >>> 1;
+            if(n[m].energy < energy)a = m + 1;
+            else b = m;
+        }
+        return(a);
+    }
+
+    /**
+     * Find the node of a level energy.
+     * @param n the nodes sorted by energy.
+     * @param energy the energy (keV).
+     * @return the node, or <code>null</code> if there is no level at the energy.
+     */
+    private static Node find(Node[] n, double energy){
+        int i = lowerBound(n, energy);
+        return((i < n.length && n[i].energy == energy) ? n[i] : null);
+    }
+
+    /**
+     * Get the edges leaving levels within given energies.
+     * @param lo the lower bound (inclusive).
+     * @param hi the upper bound (inclusive).
+     * @return the edges, sorted by the energies of their levels.
+     */
+    private List<Edge> window(double lo, double hi){
+        int a = 0;
+        int b = byFrom.length;
+        while(a < b){
+            int m = (a + b) >>> 1;
+            if(byFrom[m].fromEn < lo)a = m + 1;
+            else b = m;
+        }
+        List<Edge> ret = new ArrayList<>();
+        for(int i = a;i < byFrom.length && byFrom[i].fromEn <= hi;i++)ret.add(byFrom[i]);
+        return(ret);
+    }
+
+    /**
+     * Compute the populations of the levels from the highest level down. The
+     * population of a level is its direct feeding, plus the populations of
+     * the levels above it times the probabilities of the transitions from them
+     * to the level. Each level and transition is visited once.
+     */
+    private void populate(){
+        for(int i = nodes.length - 1;i >= 0;i--){
+            Node n = nodes[i];
+            double p = n.feeding / 100d;
+            for(Edge e : n.in)p += e.from.population * e.getProbability();
+            n.population = p;
+        }
+        populated = true;
+    }
+
+    /**
+     * @return the decay of this graph.
+     */
+    public Decay getDecay(){
+        return(decay);
+    }
+
+    /**
+     * @return the tolerance for the energies of the same level.
+     */
+    public double getTolerance(){
+        return(tol);
+    }
+
+    /**
+     * Get all edges of the graph.
+     * @return the edges, in the order of the records of the decay.
+     */
+    public List<Edge> getEdges(){
+        return(Collections.unmodifiableList(Arrays.asList(edges)));
+    }
+
+    /**
+     * Get the nodes of the graph.
+     * @return the nodes, sorted by energy.
+     */
+    public List<Node> getNodes(){
+        return(Collections.unmodifiableList(Arrays.asList(nodes)));
+    }
+
+    /**
+     * Get the probability of the decay populating a level, either by feeding
+     * the level directly or by feeding a level above it, which then cascades
+     * down to the level by gamma transitions. The probabilities of all levels
+     * are computed on the first call.
+     * @param levelEn the energy of the level (keV).
+     * @return the probability, or <code>0</code> if the decay has no level at
+     * the energy.
+     */
+    public double getPopulation(double levelEn){
+        if(!populated)populate();
+        Node n = find(nodes, levelEn);
+        return((n != null) ? n.population : 0);
+    }
+}